@@ -0,0 +1,82 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a picked image is transcoded to the bounded card and detail sizes,
+ * and that an image picked again reuses its transcoded files.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageTranscoderTest {
+
+    private File directory;
+    private File original;
+
+    @Before
+    public void createImage() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "transcoder_test");
+        directory.mkdirs();
+        original = new File(directory, "abcd.jpg");
+        Bitmap bitmap = Bitmap.createBitmap(4000, 2000, Bitmap.Config.ARGB_8888);
+        try (FileOutputStream out = new FileOutputStream(original)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+        bitmap.recycle();
+    }
+
+    @After
+    public void deleteFiles() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void transcode_boundsBothSizes() throws IOException {
+        ImageTranscoder.Result result = new ImageTranscoder().transcode(original);
+
+        assertEquals(ImageTranscoder.CARD_MAX_PIXELS, widthOf(result.card));
+        assertEquals(ImageTranscoder.DETAIL_MAX_PIXELS, widthOf(result.detail));
+        assertTrue(result.card.length() < result.detail.length());
+        assertEquals("abcd_card.webp", result.card.getName());
+    }
+
+    @Test
+    public void samePick_reusesTheFiles() throws IOException {
+        ImageTranscoder.Result first = new ImageTranscoder().transcode(original);
+        long written = first.card.lastModified();
+        first.card.setLastModified(written - LessonMediaStore.GRACE_MS);
+
+        ImageTranscoder.Result second = new ImageTranscoder().transcode(original);
+
+        assertEquals(first.card, second.card);
+        assertTrue(second.card.lastModified() >= written); // Fresh again for the media sweep
+        assertEquals(3, directory.list().length);
+    }
+
+    private static int widthOf(File image) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(image.getAbsolutePath(), options);
+        return options.outWidth;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares importing a 10k lesson catalog row by row (one transaction per lesson)
+ * with the bulk LessonDao methods (one transaction for the whole list).
+ * Runs on a database file, not in memory, so the cost of every commit is included.
+ * The rows per second are written to logcat under the "BulkBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonBulkImportBenchmarkTest {
+
+    private static final String TAG = "BulkBenchmark";
+    private static final String DB_NAME = "bulk_benchmark.db";
+    private static final int CATALOG_SIZE = 10_000;
+
+    private Context context;
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+
+    @Before
+    public void createDb() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppRoomDatabase.class, DB_NAME).build();
+        lessonDao = db.lessonDao();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void import10k_rowByRow_vs_bulk() {
+        List<Lesson> catalog = createCatalog();
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (Lesson lesson : catalog) {
+            lessonDao.insert(lesson);
+        }
+        logRate("row by row insert", start);
+
+        lessonDao.deleteAll();
+
+        start = SystemClock.elapsedRealtimeNanos();
+        List<Long> ids = lessonDao.insertAll(catalog);
+        logRate("bulk insert", start);
+        assertEquals(CATALOG_SIZE, ids.size());
+
+        for (int i = 0; i < catalog.size(); i++) {
+            catalog.get(i).setId(ids.get(i));
+            catalog.get(i).setLevel(Level.ADVANCED);
+        }
+        start = SystemClock.elapsedRealtimeNanos();
+        assertEquals(CATALOG_SIZE, lessonDao.updateAll(catalog));
+        logRate("bulk update", start);
+
+        start = SystemClock.elapsedRealtimeNanos();
+        assertEquals(CATALOG_SIZE, lessonDao.deleteByIds(ids));
+        logRate("bulk delete by ids", start);
+    }
+
+    private List<Lesson> createCatalog() {
+        List<Lesson> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(new Lesson(
+                    "lesson " + i,
+                    "abs_pic",
+                    "description " + i,
+                    "android.resource://com.example.myproject/0",
+                    "android.resource://com.example.myproject/0",
+                    Level.BEGINNER,
+                    "trainer " + (i % 50)));
+        }
+        return catalog;
+    }
+
+    private void logRate(String operation, long startNanos) {
+        long elapsedMs = Math.max(1, (SystemClock.elapsedRealtimeNanos() - startNanos) / 1_000_000);
+        Log.i(TAG, operation + ": " + CATALOG_SIZE + " rows in " + elapsedMs + " ms, "
+                + (CATALOG_SIZE * 1000L / elapsedMs) + " rows/s");
+    }
+}
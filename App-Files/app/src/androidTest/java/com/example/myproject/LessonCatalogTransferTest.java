@@ -0,0 +1,104 @@
+package com.example.myproject;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Exports lessons to a catalog and imports it again, plain and gzip,
+ * and imports a version 1 catalog that still has the Hebrew text of the level.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonCatalogTransferTest {
+
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+    private LessonCatalogTransfer transfer;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        lessonDao = db.lessonDao();
+        transfer = new LessonCatalogTransfer(lessonDao, new DatabaseScheduler());
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void exportThenImport_keepsTheLessons() throws IOException {
+        roundTrip(false);
+    }
+
+    @Test
+    public void exportThenImport_gzip_keepsTheLessons() throws IOException {
+        roundTrip(true);
+    }
+
+    @Test
+    public void import_version1_readsTheHebrewLevel() throws IOException {
+        String catalog = "{\"version\": 1, \"lessons\": ["
+                + "{\"title\": \"יוגה\", \"imageUrl\": \"yoga_pic\", \"description\": \"d\","
+                + " \"videoUrl\": \"yoga_video\", \"textFileUrl\": \"yoga_desc\", \"level\": \"מתקדמים\","
+                + " \"trainerName\": \"dana\", \"isRegistered\": false, \"isFavorites\": false},"
+                + "{\"title\": \"ריצה\", \"imageUrl\": \"run_pic\", \"description\": \"d\","
+                + " \"videoUrl\": \"run_video\", \"textFileUrl\": \"run_desc\", \"level\": \"בינוני\","
+                + " \"trainerName\": \"dana\"}],"
+                + " \"media\": [{\"url\": \"yoga_video\", \"size\": -1}]}";
+
+        LessonCatalogTransfer.ImportResult result = transfer.importCatalog(
+                new ByteArrayInputStream(catalog.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.lessonsImported);
+        assertEquals(1, result.mediaReferenced);
+        assertEquals(0, result.mediaMissing); // Not a local file
+        List<Lesson> lessons = lessonDao.getLessonsAfter(0, 10);
+        assertEquals(Level.ADVANCED, lessons.get(0).getLevel());
+        assertEquals(Level.INTERMEDIATE, lessons.get(1).getLevel());
+    }
+
+    private void roundTrip(boolean gzip) throws IOException {
+        lessonDao.insertAll(Arrays.asList(
+                lesson("אימון בטן", "abs_video", Level.BEGINNER),
+                lesson("יוגה", "yoga_video", Level.ADVANCED),
+                lesson("יוגה למתקדמים", "yoga_video", Level.ADVANCED))); // Shares its video
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, transfer.exportCatalog(out, gzip));
+        lessonDao.deleteAll();
+        LessonCatalogTransfer.ImportResult result = transfer.importCatalog(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(3, result.lessonsImported);
+        assertEquals(5, result.mediaReferenced); // abs_pic, abs_video, yoga_video and the two text files
+        List<Lesson> lessons = lessonDao.getLessonsAfter(0, 10);
+        assertEquals(3, lessons.size());
+        assertEquals("אימון בטן", lessons.get(0).getTitle());
+        assertEquals(Level.BEGINNER, lessons.get(0).getLevel());
+        assertEquals("yoga_video", lessons.get(2).getVideoUrl());
+        assertEquals(Level.ADVANCED, lessons.get(2).getLevel());
+    }
+
+    private static Lesson lesson(String title, String videoUrl, Level level) {
+        return new Lesson(title, "abs_pic", "description", videoUrl, videoUrl + "_desc",
+                level, "dana");
+    }
+}
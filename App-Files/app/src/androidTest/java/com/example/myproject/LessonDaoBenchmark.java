@@ -0,0 +1,176 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Microbenchmarks of the LessonDao operations the app uses, at catalog sizes from 100 to 100k lessons
+ * Times are reported by androidx.benchmark, bytes allocated per operation are written to logcat
+ * under the "DaoBenchmark" tag. Runs on a database file with the real AppRoomDatabase schema,
+ * so index and migration changes show up here. Only the queries the app itself runs are measured.
+ * For release-like numbers run with
+ * ./gradlew :app:connectedAndroidTest -PrunBenchmarks -PtestBuildType=benchmark
+ */
+@RunWith(Parameterized.class)
+public class LessonDaoBenchmark {
+
+    static final String TAG = "DaoBenchmark";
+    private static final String DB_NAME = "dao_benchmark.db";
+    private static final Level[] LEVELS = Level.values();
+    private static final int PAGE_SIZE = 20; // Same as the lessons list
+    private static final int ALLOCATION_RUNS = 100; // Operations counted for the allocations per operation
+    private static final String BYTES_ALLOCATED = "art.gc.bytes-allocated"; // Debug.getRuntimeStat key
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter
+    public int catalogSize;
+
+    private Context context;
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+    private List<Long> ids;
+
+    @Parameterized.Parameters(name = "lessons={0}")
+    public static List<Integer> catalogSizes() {
+        return Arrays.asList(100, 1_000, 10_000, 100_000);
+    }
+
+    @Before
+    public void createDb() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppRoomDatabase.class, DB_NAME).build();
+        lessonDao = db.lessonDao();
+        ids = lessonDao.insertAll(createCatalog(catalogSize));
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void insert() {
+        Lesson lesson = createLesson(catalogSize);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            lessonDao.insert(lesson);
+        }
+        logAllocations("insert", () -> lessonDao.insert(lesson));
+    }
+
+    @Test
+    public void update() {
+        Lesson lesson = lessonDao.getLessonByIdNow(ids.get(ids.size() / 2));
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            toggleLevel(lesson);
+            lessonDao.update(lesson);
+        }
+        logAllocations("update", () -> {
+            toggleLevel(lesson);
+            lessonDao.update(lesson);
+        });
+    }
+
+    // Changes an indexed column, so every update also writes the index
+    private static void toggleLevel(Lesson lesson) {
+        lesson.setLevel(lesson.getLevel() == Level.BEGINNER ? Level.ADVANCED : Level.BEGINNER);
+    }
+
+    @Test
+    public void getLessonById() {
+        long id = ids.get(ids.size() / 2);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            lessonDao.getLessonByIdNow(id);
+        }
+        logAllocations("getLessonById", () -> lessonDao.getLessonByIdNow(id));
+    }
+
+    // Every row as a full entity, what the catalog export reads a page at a time
+    @Test
+    public void getAllLessons() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            lessonDao.getLessonsAfter(0, Integer.MAX_VALUE);
+        }
+        logAllocations("getAllLessons", () -> lessonDao.getLessonsAfter(0, Integer.MAX_VALUE));
+    }
+
+    // The same rows as getAllLessons, with only the columns of the list cards
+    @Test
+    public void getAllCards() {
+        SupportSQLiteQuery query = new LessonQuery().build();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            lessonDao.queryCards(query);
+        }
+        logAllocations("getAllCards", () -> lessonDao.queryCards(query));
+    }
+
+    // The first page of the lessons list of one level, built like the list builds it
+    @Test
+    public void firstPageOfLevel() {
+        SupportSQLiteQuery query = new LessonQuery().level(LEVELS[1]).limit(PAGE_SIZE, 0).build();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            lessonDao.queryCards(query);
+        }
+        logAllocations("firstPageOfLevel", () -> lessonDao.queryCards(query));
+    }
+
+    /**
+     * Measures the bytes the operation allocates, from the runtime's allocation counter
+     * The counter is for the whole process, the operation runs many times so other threads add only a little noise
+     */
+    private void logAllocations(String operation, Runnable op) {
+        long before = Long.parseLong(Debug.getRuntimeStat(BYTES_ALLOCATED));
+        for (int i = 0; i < ALLOCATION_RUNS; i++) {
+            op.run();
+        }
+        long allocated = Long.parseLong(Debug.getRuntimeStat(BYTES_ALLOCATED)) - before;
+        Log.i(TAG, operation + " lessons=" + catalogSize + ": "
+                + (allocated / ALLOCATION_RUNS) + " bytes per operation");
+    }
+
+    private static List<Lesson> createCatalog(int size) {
+        List<Lesson> catalog = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            catalog.add(createLesson(i));
+        }
+        return catalog;
+    }
+
+    private static Lesson createLesson(int i) {
+        return new Lesson(
+                "lesson " + i,
+                "abs_pic",
+                "description " + i,
+                "android.resource://com.example.myproject/raw/abs_video",
+                "android.resource://com.example.myproject/raw/abs_desc",
+                LEVELS[i % LEVELS.length],
+                "trainer " + (i % 50));
+    }
+}
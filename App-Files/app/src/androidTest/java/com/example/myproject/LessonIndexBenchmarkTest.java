@@ -0,0 +1,133 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the level/trainer queries of lesson_table at 1k, 10k and 100k rows,
+ * once without the indexes (before version 5) and once with them.
+ * The results are written to logcat under the "IndexBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonIndexBenchmarkTest {
+
+    private static final String TAG = "IndexBenchmark";
+    private static final int[] CATALOG_SIZES = {1_000, 10_000, 100_000};
+    private static final int RUNS = 15;
+    private static final Level[] LEVELS = Level.values();
+
+    private static final String LEVEL_PAGE_QUERY =
+            "SELECT * FROM lesson_table WHERE level = " + Level.INTERMEDIATE.code + " ORDER BY id LIMIT 20";
+    private static final String TRAINER_QUERY =
+            "SELECT COUNT(*) FROM lesson_table WHERE trainerName = 'trainer 7'";
+
+    private AppRoomDatabase db;
+    private SupportSQLiteDatabase sqlite;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        sqlite = db.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void queryLatency_beforeAndAfterIndexes() {
+        for (int size : CATALOG_SIZES) {
+            sqlite.execSQL("DELETE FROM lesson_table");
+            fillCatalog(size);
+
+            dropIndexes();
+            long[] before = measureAll();
+
+            createIndexes();
+            long[] after = measureAll();
+
+            Log.i(TAG, size + " rows, median µs (level page / trainer): before "
+                    + Arrays.toString(before) + " after " + Arrays.toString(after));
+        }
+
+        // With the index the level query must be answered from the index, not a table scan
+        assertTrue(queryPlan(LEVEL_PAGE_QUERY).contains("index_lesson_table_level"));
+    }
+
+    private void fillCatalog(int size) {
+        db.runInTransaction(() -> {
+            LessonDao dao = db.lessonDao();
+            for (int i = 0; i < size; i++) {
+                dao.insert(new Lesson(
+                        "lesson " + i,
+                        "abs_pic",
+                        "description " + i,
+                        "android.resource://com.example.myproject/0",
+                        "android.resource://com.example.myproject/0",
+                        LEVELS[i % LEVELS.length],
+                        "trainer " + (i % 50)));
+            }
+        });
+    }
+
+    private void dropIndexes() {
+        sqlite.execSQL("DROP INDEX IF EXISTS `index_lesson_table_level`");
+        sqlite.execSQL("DROP INDEX IF EXISTS `index_lesson_table_trainerName`");
+    }
+
+    // The lesson_table indexes of MIGRATION_4_5 that are still in the schema
+    private void createIndexes() {
+        sqlite.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_level` ON `lesson_table` (`level`)");
+        sqlite.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_trainerName` ON `lesson_table` (`trainerName`)");
+    }
+
+    private long[] measureAll() {
+        return new long[]{
+                medianMicros(LEVEL_PAGE_QUERY),
+                medianMicros(TRAINER_QUERY)
+        };
+    }
+
+    private long medianMicros(String sql) {
+        long[] runs = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try (Cursor cursor = sqlite.query(sql)) {
+                while (cursor.moveToNext()) {
+                    // Read every row so the whole query is executed
+                }
+            }
+            runs[i] = (SystemClock.elapsedRealtimeNanos() - start) / 1_000;
+        }
+        Arrays.sort(runs);
+        return runs[RUNS / 2];
+    }
+
+    private String queryPlan(String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = sqlite.query("EXPLAIN QUERY PLAN " + sql)) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnCount() - 1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
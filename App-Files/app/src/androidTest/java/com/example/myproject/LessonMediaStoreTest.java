@@ -0,0 +1,102 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the media sweep deletes only the files no lesson references,
+ * and leaves files picked a moment ago and files it doesn't manage alone.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonMediaStoreTest {
+
+    private AppRoomDatabase db;
+    private File legacyDirectory;
+    private File directory;
+    private LessonMediaStore store;
+
+    @Before
+    public void createStore() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        legacyDirectory = new File(context.getCacheDir(), "media_store_test");
+        directory = new File(legacyDirectory, "media");
+        store = new LessonMediaStore(directory, legacyDirectory, db.lessonDao(), new DatabaseScheduler());
+    }
+
+    @After
+    public void deleteFiles() {
+        for (File dir : new File[]{directory, legacyDirectory}) {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+        db.close();
+    }
+
+    @Test
+    public void sweep_deletesOnlyUnreferencedOldFiles() throws IOException {
+        File shared = oldFile(directory, "aaaa.mp4");
+        File unused = oldFile(directory, "bbbb.jpg");
+        File legacyUsed = oldFile(legacyDirectory, "text_123.txt");
+        File legacyUnused = oldFile(legacyDirectory, "video_456.mp4");
+        File notOurs = oldFile(legacyDirectory, "settings.txt");
+        File justPicked = new File(directory, "cccc.jpg");
+        justPicked.createNewFile();
+        db.lessonDao().insertAll(Arrays.asList(
+                lesson(Uri.fromFile(shared).toString(), Uri.fromFile(legacyUsed).toString()),
+                lesson(shared.getAbsolutePath(), "android.resource://com.example.myproject/raw/abs_desc")));
+
+        assertEquals(2, store.sweep());
+
+        assertTrue(shared.exists());
+        assertTrue(legacyUsed.exists());
+        assertTrue(justPicked.exists()); // May still be saved
+        assertTrue(notOurs.exists());
+        assertFalse(unused.exists());
+        assertFalse(legacyUnused.exists());
+    }
+
+    @Test
+    public void references_countEveryLessonUsingTheFile() throws IOException {
+        File shared = oldFile(directory, "aaaa.mp4");
+        String url = Uri.fromFile(shared).toString();
+        db.lessonDao().insertAll(Arrays.asList(lesson(url, url), lesson(shared.getAbsolutePath(), url)));
+
+        assertEquals(2, db.lessonDao().countMediaReferences(url, shared.getAbsolutePath()));
+    }
+
+    private static File oldFile(File dir, String name) throws IOException {
+        dir.mkdirs();
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(1);
+        }
+        file.setLastModified(System.currentTimeMillis() - LessonMediaStore.GRACE_MS * 2);
+        return file;
+    }
+
+    private static Lesson lesson(String videoUrl, String textFileUrl) {
+        return new Lesson("אימון בטן", "abs_pic", "description", videoUrl, textFileUrl,
+                Level.BEGINNER, "dana");
+    }
+}
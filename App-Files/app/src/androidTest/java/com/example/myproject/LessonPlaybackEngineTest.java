@@ -0,0 +1,83 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that the lesson players are reused instead of created per screen, that a player in use
+ * is never given to another screen, and that the idle pool stays bounded.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonPlaybackEngineTest {
+
+    private static final Uri VIDEO = Uri.parse("android.resource://com.example.myproject/raw/abs_video");
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Test
+    public void releasedPlayer_isReusedByTheNextScreen() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            LessonPlaybackEngine engine = ((MoveItApplication) context.getApplicationContext()).getPlaybackEngine();
+            Object firstScreen = new Object();
+            Object secondScreen = new Object();
+
+            ExoPlayer first = engine.acquire(firstScreen, 1, VIDEO, false);
+            engine.release(firstScreen, 1, first);
+            ExoPlayer second = engine.acquire(secondScreen, 2, VIDEO, false);
+
+            assertSame(first, second);
+
+            engine.release(firstScreen, 2, second); // Not its player anymore, ignored
+            Object thirdScreen = new Object();
+            ExoPlayer third = engine.acquire(thirdScreen, 3, VIDEO, false);
+            assertNotSame(second, third);
+
+            engine.release(secondScreen, 2, second);
+            engine.release(thirdScreen, 3, third);
+        });
+    }
+
+    @Test
+    public void busyPool_createsAPlayer_andKeepsOnlyTwoIdle() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            LessonPlaybackEngine engine = ((MoveItApplication) context.getApplicationContext()).getPlaybackEngine();
+            Object a = new Object();
+            Object b = new Object();
+            Object c = new Object();
+
+            ExoPlayer first = engine.acquire(a, 1, VIDEO, false);
+            ExoPlayer second = engine.acquire(b, 2, VIDEO, false);
+            ExoPlayer third = engine.acquire(c, 3, VIDEO, false);
+
+            assertNotSame(first, third); // The first screen keeps its player
+            assertNotSame(second, third);
+
+            engine.release(a, 1, first);
+            engine.release(b, 2, second);
+            engine.release(c, 3, third); // The pool is full, freed
+            Object d = new Object();
+            Object e = new Object();
+            Object f = new Object();
+            ExoPlayer fourth = engine.acquire(d, 4, VIDEO, false);
+            ExoPlayer fifth = engine.acquire(e, 5, VIDEO, false);
+            ExoPlayer sixth = engine.acquire(f, 6, VIDEO, false);
+
+            assertSame(second, fourth);
+            assertSame(first, fifth);
+            assertNotSame(third, sixth); // A new player, the third one was released
+            engine.release(d, 4, fourth);
+            engine.release(e, 5, fifth);
+            engine.release(f, 6, sixth);
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that LessonQuery combines its filters, sorts and limits in SQLite,
+ * and that the filtered queries are answered from the lesson_table indexes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonQueryTest {
+
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+    private long userId;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        lessonDao = db.lessonDao();
+        userId = db.userDao().insert(new User("noa", Role.TRAINEE));
+        List<Long> ids = lessonDao.insertAll(Arrays.asList(
+                lesson("ג", Level.BEGINNER, "dana"),
+                lesson("א", Level.BEGINNER, "dana"),
+                lesson("ב", Level.BEGINNER, "avi"),
+                lesson("ד", Level.INTERMEDIATE, "dana"),
+                lesson("ה", Level.BEGINNER, "dana")));
+        boolean[] favorite = {true, true, true, true, false};
+        boolean[] registered = {false, true, false, false, false};
+        UserLessonStateDao stateDao = db.userLessonStateDao();
+        for (int i = 0; i < ids.size(); i++) {
+            stateDao.setFavorite(userId, ids.get(i), favorite[i]);
+            stateDao.setRegistered(userId, ids.get(i), registered[i]);
+        }
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void combinedFilters_sortedByTitle() {
+        List<LessonCard> cards = lessonDao.queryCards(new LessonQuery()
+                .forUser(userId)
+                .level(Level.BEGINNER)
+                .trainer("dana")
+                .favoritesOnly()
+                .sortBy(LessonQuery.Sort.TITLE)
+                .build());
+
+        assertEquals(2, cards.size());
+        assertEquals("א", cards.get(0).getTitle());
+        assertEquals("ג", cards.get(1).getTitle());
+        assertTrue(cards.get(0).isRegistered());
+    }
+
+    @Test
+    public void registeredFilter_withLimitAndOffset() {
+        List<LessonCard> cards = lessonDao.queryCards(new LessonQuery()
+                .forUser(userId)
+                .registered(false)
+                .sortBy(LessonQuery.Sort.NEWEST)
+                .limit(2, 1)
+                .build());
+
+        assertEquals(2, cards.size());
+        assertEquals("ד", cards.get(0).getTitle());
+        assertEquals("ב", cards.get(1).getTitle());
+    }
+
+    @Test
+    public void filteredQuery_usesIndex() {
+        SupportSQLiteQuery query = new LessonQuery().forUser(userId).level(Level.INTERMEDIATE).buildForPaging();
+        String plan = explain(query);
+        assertTrue(plan, plan.contains("index_lesson_table_level"));
+    }
+
+    private String explain(SupportSQLiteQuery query) {
+        Object[] args = new Object[query.getArgCount()];
+        // The user and the level are bound here, the plan doesn't depend on their values
+        Arrays.fill(args, Level.INTERMEDIATE.code);
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query("EXPLAIN QUERY PLAN " + query.getSql(), args)) {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Lesson lesson(String title, Level level, String trainer) {
+        return new Lesson(title, "abs_pic", "description", "android.resource://com.example.myproject/raw/abs_video",
+                "android.resource://com.example.myproject/raw/abs_desc", level, trainer);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the full-text search index: the triggers that copy title and description,
+ * the text files waiting to be indexed, and the queries built from what the user typed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonSearchTest {
+
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class)
+                .addCallback(AppRoomDatabase.roomCallback) // The search index triggers
+                .build();
+        lessonDao = db.lessonDao();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void matchQuery_dropsSyntaxAndMatchesPrefixes() {
+        assertEquals("אימון* בטן*", LessonSearch.toMatchQuery("  אימון \"בטן\" "));
+        assertEquals("abs* 2*", LessonSearch.toMatchQuery("abs-(2*)"));
+        assertNull(LessonSearch.toMatchQuery(" *\" "));
+        assertNull(LessonSearch.toMatchQuery(null));
+    }
+
+    @Test
+    public void triggers_keepTitleAndDescriptionInSync() {
+        List<Long> ids = lessonDao.insertAll(Arrays.asList(lesson("אימון בטן", "file:///a.txt"), lesson("אימון רגליים", "file:///b.txt")));
+        assertEquals(Arrays.asList(ids.get(0), ids.get(1)), search("אימון*"));
+
+        Lesson legs = lessonDao.getLessonByIdNow(ids.get(1));
+        legs.setTitle("כתפיים");
+        lessonDao.update(legs);
+        assertEquals(Arrays.asList(ids.get(1)), search("כתפ*"));
+        assertEquals(Arrays.asList(ids.get(0)), search("אימון*"));
+
+        lessonDao.deleteByIds(Arrays.asList(ids.get(0)));
+        assertTrue(search("בטן*").isEmpty());
+    }
+
+    @Test
+    public void textFiles_waitUntilIndexed() {
+        long id = lessonDao.insertAll(Arrays.asList(lesson("אימון בטן", "file:///a.txt"))).get(0);
+        assertEquals(1, lessonDao.getLessonsToIndex(0, 10).size());
+
+        lessonDao.indexLessonText(id, "file:///a.txt", "סקוואט ולחיצת חזה");
+        assertTrue(lessonDao.getLessonsToIndex(0, 10).isEmpty());
+        assertEquals(Arrays.asList(id), search("סקוו*"));
+        assertEquals(Arrays.asList(id), search("בטן*")); // Title still indexed
+
+        // A new text file makes the lesson wait for indexing again
+        Lesson lesson = lessonDao.getLessonByIdNow(id);
+        lesson.setTextFileUrl("file:///b.txt");
+        lessonDao.update(lesson);
+        assertEquals(1, lessonDao.getLessonsToIndex(0, 10).size());
+    }
+
+    @Test
+    public void searchQuery_ranksTitleThenDescriptionThenText() {
+        List<Long> ids = lessonDao.insertAll(Arrays.asList(
+                lesson("אימון רגליים", "תיאור", "file:///a.txt"),
+                lesson("אימון בטן", "תיאור", "file:///b.txt"),
+                lesson("ידיים", "אימון חיזוק בטן", "file:///c.txt"),
+                lesson("בטן תחתונה", "תיאור", "file:///d.txt")));
+        lessonDao.indexLessonText(ids.get(0), "file:///a.txt", "תרגילי בטן בסוף");
+
+        // Every word in the title, then in the description, then in the text file
+        assertEquals(Arrays.asList(ids.get(1), ids.get(2), ids.get(0)),
+                searchCards(LessonSearch.toMatchQuery("אימון בט")));
+        // One word is enough when it is the whole query
+        assertEquals(Arrays.asList(ids.get(1), ids.get(3), ids.get(2), ids.get(0)),
+                searchCards(LessonSearch.toMatchQuery("בטן")));
+    }
+
+    private List<Long> searchCards(String match) {
+        List<Long> ids = new ArrayList<>();
+        try (Cursor cursor = db.query(LessonSearch.toSearchQuery(1, match))) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(cursor.getColumnIndexOrThrow("id")));
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> search(String match) {
+        List<Long> ids = new ArrayList<>();
+        try (Cursor cursor = db.getOpenHelper().getReadableDatabase()
+                .query("SELECT rowid FROM lesson_fts WHERE lesson_fts MATCH ? ORDER BY rowid", new Object[]{match})) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(0));
+            }
+        }
+        return ids;
+    }
+
+    private static Lesson lesson(String title, String textFileUrl) {
+        return lesson(title, "תיאור", textFileUrl);
+    }
+
+    private static Lesson lesson(String title, String description, String textFileUrl) {
+        return new Lesson(title, "abs_pic", description, "android.resource://com.example.myproject/raw/abs_video",
+                textFileUrl, Level.BEGINNER, "dana");
+    }
+}
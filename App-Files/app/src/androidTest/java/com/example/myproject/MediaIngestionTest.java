@@ -0,0 +1,136 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a picked file is copied whole with its progress reported, also from a pipe,
+ * that the same content is stored once, and that a cancelled copy leaves nothing behind.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MediaIngestionTest {
+
+    private File directory;
+    private File source;
+    private MediaIngestion ingestion;
+
+    @Before
+    public void createSource() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "ingestion_test");
+        directory.mkdirs();
+        source = new File(context.getCacheDir(), "source.bin");
+        byte[] bytes = new byte[(int) (MediaIngestion.CHUNK_BYTES * 2 + 1000)]; // Three chunks
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        try (FileOutputStream out = new FileOutputStream(source)) {
+            out.write(bytes);
+        }
+        ingestion = new MediaIngestion(context.getContentResolver(), directory);
+    }
+
+    @After
+    public void deleteFiles() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+        source.delete();
+    }
+
+    @Test
+    public void copy_keepsTheBytesAndReportsProgress() throws IOException {
+        long[] last = {0, 0};
+        File copy = ingestion.copy(Uri.fromFile(source), "mp4", new AtomicBoolean(false),
+                (copied, total) -> {
+                    last[0] = copied;
+                    last[1] = total;
+                });
+
+        assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(copy.toPath()));
+        assertEquals(source.length(), last[0]);
+        assertEquals(source.length(), last[1]);
+        assertTrue(copy.getName().matches("[0-9a-f]{64}\\.mp4")); // Named by its SHA-256
+    }
+
+    @Test
+    public void copyFromPipe_readsUntilTheWriterCloses() throws Exception {
+        byte[] bytes = Files.readAllBytes(source.toPath());
+        ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
+        // Small writes with pauses, so the copy gets short reads and waits on an empty pipe before the end
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = new ParcelFileDescriptor.AutoCloseOutputStream(pipe[1])) {
+                for (int offset = 0; offset < bytes.length; offset += 4096) {
+                    out.write(bytes, offset, Math.min(4096, bytes.length - offset));
+                    if (offset % (1024 * 1024) == 0) {
+                        SystemClock.sleep(20);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+
+        long[] last = {0, 0};
+        File copy;
+        try (ParcelFileDescriptor in = pipe[0]) {
+            copy = ingestion.copy(in, "pipe", "mp4", new AtomicBoolean(false), (copied, total) -> {
+                last[0] = copied;
+                last[1] = total;
+            });
+        }
+        writer.join();
+
+        assertArrayEquals(bytes, Files.readAllBytes(copy.toPath()));
+        assertEquals(bytes.length, last[0]);
+        assertEquals(-1, last[1]); // A pipe has no size
+    }
+
+    @Test
+    public void sameContent_isStoredOnce() throws IOException {
+        File first = ingestion.copy(Uri.fromFile(source), "mp4", new AtomicBoolean(false), (copied, total) -> { });
+        File second = ingestion.copy(Uri.fromFile(source), "mp4", new AtomicBoolean(false), (copied, total) -> { });
+
+        assertEquals(first, second);
+        assertEquals(Arrays.asList(first.getName()), Arrays.asList(directory.list()));
+    }
+
+    @Test
+    public void cancelledCopy_leavesNoFile() throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        try {
+            ingestion.copy(Uri.fromFile(source), "mp4", cancelled, (copied, total) -> cancelled.set(true));
+            fail("The copy should have been cancelled");
+        } catch (CancellationException expected) {
+            // The first chunk cancelled it
+        }
+
+        assertEquals(Arrays.asList(), Arrays.asList(directory.list()));
+    }
+}
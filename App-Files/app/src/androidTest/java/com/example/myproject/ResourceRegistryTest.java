@@ -0,0 +1,31 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks how the video urls stored in lessons become URIs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ResourceRegistryTest {
+
+    private static final Uri VIDEO = Uri.parse("android.resource://com.example.myproject/raw/abs_video");
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Test
+    public void getVideoUri_handlesPathsNamesAndUris() {
+        assertEquals("file:///data/video.mp4", ResourceRegistry.getVideoUri(context, "/data/video.mp4").toString());
+        assertEquals(VIDEO, ResourceRegistry.getVideoUri(context, VIDEO.toString()));
+        assertEquals("android.resource://com.example.myproject/" + ResourceRegistry.getRawId(context, "abs_video"),
+                ResourceRegistry.getVideoUri(context, "abs_video").toString());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.myproject;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Microbenchmarks of the UserDao operations of registration, start and settings
+ * The app only has a few users, so there is no catalog size here like in LessonDaoBenchmark.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserDaoBenchmark {
+
+    private static final String DB_NAME = "user_dao_benchmark.db";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private AppRoomDatabase db;
+    private UserDao userDao;
+
+    @Before
+    public void createDb() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppRoomDatabase.class, DB_NAME).build();
+        userDao = db.userDao();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void insert() {
+        User user = new User("benchmark", Role.TRAINEE);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            userDao.insert(user);
+        }
+    }
+
+    @Test
+    public void update() {
+        User user = new User("benchmark", Role.TRAINEE);
+        user.setId(userDao.insert(user));
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            userDao.update(user);
+        }
+    }
+
+    @Test
+    public void getUserById() {
+        long id = userDao.insert(new User("benchmark", Role.TRAINEE));
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            userDao.getUserByIdNow(id);
+        }
+    }
+}
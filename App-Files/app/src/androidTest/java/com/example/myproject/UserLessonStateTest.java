@@ -0,0 +1,92 @@
+package com.example.myproject;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that favorites and progress are kept per user: a toggle writes only its own flag
+ * of its own user, the lesson cards show the flags of the user they were asked for,
+ * and the rows go away with their user or lesson.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserLessonStateTest {
+
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+    private UserLessonStateDao stateDao;
+    private long noa;
+    private long avi;
+    private long lessonId;
+
+    @Before
+    public void createDb() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        lessonDao = db.lessonDao();
+        stateDao = db.userLessonStateDao();
+        noa = db.userDao().insert(new User("noa", Role.TRAINEE));
+        avi = db.userDao().insert(new User("avi", Role.TRAINEE));
+        lessonId = lessonDao.insertAll(Arrays.asList(new Lesson("אימון בטן", "abs_pic", "description",
+                "android.resource://com.example.myproject/raw/abs_video",
+                "android.resource://com.example.myproject/raw/abs_desc",
+                Level.BEGINNER, "dana"))).get(0);
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void toggles_onlyChangeTheirFlagOfTheirUser() {
+        assertNull(stateDao.getStateNow(noa, lessonId));
+
+        stateDao.setFavorite(noa, lessonId, true);
+        stateDao.setRegistered(noa, lessonId, true);
+        stateDao.setFavorite(noa, lessonId, false);
+
+        UserLessonState state = stateDao.getStateNow(noa, lessonId);
+        assertFalse(state.isFavorites());
+        assertTrue(state.isRegistered()); // Not reset by the favorite toggle
+        assertNull(stateDao.getStateNow(avi, lessonId));
+    }
+
+    @Test
+    public void cards_showTheFlagsOfTheUser() {
+        stateDao.setFavorite(noa, lessonId, true);
+
+        List<LessonCard> noaCards = lessonDao.queryCards(new LessonQuery().forUser(noa).favoritesOnly().build());
+        List<LessonCard> aviCards = lessonDao.queryCards(new LessonQuery().forUser(avi).build());
+
+        assertEquals(1, noaCards.size());
+        assertTrue(noaCards.get(0).isFavorites());
+        assertEquals(1, aviCards.size());
+        assertFalse(aviCards.get(0).isFavorites());
+        assertFalse(aviCards.get(0).isRegistered());
+    }
+
+    @Test
+    public void deletingTheLesson_removesItsState() {
+        stateDao.setRegistered(noa, lessonId, true);
+
+        lessonDao.deleteById(lessonId);
+
+        assertNull(stateDao.getStateNow(noa, lessonId));
+    }
+}
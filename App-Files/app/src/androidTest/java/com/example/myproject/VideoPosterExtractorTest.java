@@ -0,0 +1,91 @@
+package com.example.myproject;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks which lessons still need their poster read, that a poster read for an old video
+ * isn't saved on a lesson that got another one, and that a file that isn't a video fails cleanly.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VideoPosterExtractorTest {
+
+    private Context context;
+    private AppRoomDatabase db;
+    private LessonDao lessonDao;
+
+    @Before
+    public void createDb() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppRoomDatabase.class).build();
+        lessonDao = db.lessonDao();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void setPoster_removesTheLessonFromTheBackfill() {
+        long id = lessonDao.insertAll(Arrays.asList(lesson("old_video"))).get(0);
+        assertEquals(1, lessonDao.getLessonsWithoutPoster(10).size());
+
+        lessonDao.setPoster(id, "old_video", "file:///poster.webp", 42_000);
+
+        Lesson lesson = lessonDao.getLessonByIdNow(id);
+        assertEquals("file:///poster.webp", lesson.getPosterUrl());
+        assertEquals(Long.valueOf(42_000), lesson.getDurationMs());
+        assertTrue(lessonDao.getLessonsWithoutPoster(10).isEmpty());
+    }
+
+    @Test
+    public void setPoster_ofAReplacedVideo_isIgnored() {
+        long id = lessonDao.insertAll(Arrays.asList(lesson("new_video"))).get(0);
+
+        lessonDao.setPoster(id, "old_video", "file:///poster.webp", 42_000);
+
+        Lesson lesson = lessonDao.getLessonByIdNow(id);
+        assertNull(lesson.getPosterUrl());
+        assertNull(lesson.getDurationMs()); // Still read by the next backfill
+    }
+
+    @Test
+    public void extract_ofAFileThatIsNoVideo_throws() throws IOException {
+        File notVideo = new File(context.getCacheDir(), "not_a_video.mp4");
+        try (FileOutputStream out = new FileOutputStream(notVideo)) {
+            out.write("hello".getBytes());
+        }
+        try {
+            VideoPosterExtractor.getInstance(context).extract(notVideo.getAbsolutePath());
+            fail("A text file has no frames");
+        } catch (IOException expected) {
+            // The backfill marks the lesson as unreadable then
+        } finally {
+            notVideo.delete();
+        }
+    }
+
+    private static Lesson lesson(String videoUrl) {
+        return new Lesson("אימון בטן", "abs_pic", "description", videoUrl,
+                "android.resource://com.example.myproject/raw/abs_desc", Level.BEGINNER, "dana");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.myproject;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.database.Cursor;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the lessons list for the :macrobenchmark scroll benchmark, only in the benchmark build type
+ * adb shell am broadcast -n com.example.myproject/.BenchmarkSeedReceiver --ei count 2000
+ * Copies the built in lessons into the default level until it has count benchmark lessons,
+ * so sending it again adds nothing. The result code is the number of lessons added.
+ */
+public class BenchmarkSeedReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "BenchmarkSeedReceiver";
+    static final String TRAINER = "benchmark"; // Trainer name of the seeded lessons
+    private static final int DEFAULT_COUNT = 2000;
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        int count = intent.getIntExtra("count", DEFAULT_COUNT);
+        PendingResult result = goAsync();
+        AppRoomDatabase db = AppRoomDatabase.getDatabase(context);
+        AppRoomDatabase.getScheduler().write(() -> {
+            try {
+                int added = seed(db, count);
+                Log.i(TAG, "Added " + added + " benchmark lessons");
+                result.setResultCode(added);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    private static int seed(AppRoomDatabase db, int count) {
+        LessonDao lessonDao = db.lessonDao();
+        int existing;
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM lesson_table WHERE trainerName = ?", new Object[]{TRAINER})) {
+            existing = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+        List<Lesson> templates = lessonDao.getLessonsAfter(0, 50); // The built in lessons, for real images
+        if (existing >= count || templates.isEmpty()) {
+            return 0;
+        }
+
+        List<Lesson> lessons = new ArrayList<>(count - existing);
+        for (int i = existing; i < count; i++) {
+            Lesson template = templates.get(i % templates.size());
+            Lesson lesson = new Lesson("שיעור " + i, template.getImageUrl(), template.getDescription(),
+                    template.getVideoUrl(), template.getTextFileUrl(), LessonViewModel.DEFAULT_LEVEL,
+                    TRAINER);
+            // The scroll benchmark doesn't open them, so VideoPosterExtractor doesn't read thousands of videos
+            lesson.setDurationMs(VideoPosterExtractor.UNREADABLE);
+            lessons.add(lesson);
+        }
+        lessonDao.insertAll(lessons);
+        return lessons.size();
+    }
+}
@@ -6,10 +6,12 @@ import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
+import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.MediaController;
+import android.widget.ProgressBar;
 import android.widget.ScrollView;
 import android.widget.Spinner;
 import android.widget.TextView;
@@ -22,18 +24,14 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.google.android.material.button.MaterialButton;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.util.Objects;
 
 /**
  * Activity for adding new lessons or editing existing ones.
  * Supports file selection (video, text, image) from device storage
- * and automatically copies them to internal storage for app persistence.
+ * and automatically copies them to internal storage for app persistence,
+ * in the background (MediaIngestionViewModel) - the lesson can be saved once the copies are done.
  * Handles both raw resources (pre-built content) and user-uploaded content.
  */
 public class AddLessonActivity extends AppCompatActivity {
@@ -41,6 +39,9 @@ public class AddLessonActivity extends AppCompatActivity {
     //ViewModel for DB options (delete, update, insert)
     private LessonViewModel lessonViewModel;
 
+    //copies the picked files into internal storage, keeps going while the screen rotates
+    private MediaIngestionViewModel ingestionViewModel;
+
 
     // Request codes for file picking intents to identify which type of file was selected
     private static final int PICK_VIDEO_REQUEST = 1;
@@ -52,6 +53,12 @@ public class AddLessonActivity extends AppCompatActivity {
     private Uri selectedVideoUri = null;
     private  Uri selectedTextUri = null;
     private Uri selectedImageUri = null;
+    // The card and detail sizes of a picked image, null when it has none
+    private String selectedThumbnailUrl = null;
+    private String selectedDetailImageUrl = null;
+    // The poster frame and duration of the picked video, null when it has none
+    private String selectedPosterUrl = null;
+    private Long selectedDurationMs = null;
 
     // UI elements for file selection and form inputs
     private MaterialButton btnAddVideo; // Button to select video file
@@ -61,6 +68,11 @@ public class AddLessonActivity extends AppCompatActivity {
     private ImageButton btnBack; // Back navigation button
     private Spinner spnLevel; // Difficulty level selection spinner
 
+    // Progress of the file copies
+    private View ingestPanel;
+    private ProgressBar ingestProgress;
+    private TextView tvIngestStatus;
+
 
     // Form input fields for lesson details
     private EditText etLessonName, etShortDis;
@@ -68,6 +80,7 @@ public class AddLessonActivity extends AppCompatActivity {
     //lesson id and interface for edit mode
     private long lessonId = -1; // Default value indicates "add new lesson" mode
     private Lesson existingLesson; // Holds lesson data when editing existing lesson
+    private boolean lessonShown; // The form was filled from the lesson, later changes of the row don't refill it
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -91,6 +104,25 @@ public class AddLessonActivity extends AppCompatActivity {
         spnLevel = findViewById(R.id.spnLevel); //match the level of the lesson
         btnSave=findViewById(R.id.btnSave); //the save btn
 
+        // Picked files are copied in the background, their previews show once a copy is done
+        ingestionViewModel = new ViewModelProvider(this).get(MediaIngestionViewModel.class);
+        ingestPanel = findViewById(R.id.ingestPanel);
+        ingestProgress = findViewById(R.id.ingestProgress);
+        tvIngestStatus = findViewById(R.id.tvIngestStatus);
+        Button btnCancelIngest = findViewById(R.id.btnCancelIngest);
+        btnCancelIngest.setOnClickListener(v -> ingestionViewModel.cancelAll());
+        for (MediaIngestionViewModel.Kind kind : MediaIngestionViewModel.Kind.values()) {
+            ingestionViewModel.getState(kind).observe(this, state -> onIngestionState(kind, state));
+        }
+        // The lesson can only be saved once every picked file is copied
+        ingestionViewModel.isBusy().observe(this, busy -> {
+            btnSave.setEnabled(!busy);
+            btnSave.setAlpha(busy ? 0.4f : 1f);
+            if (!busy) {
+                ingestPanel.setVisibility(View.GONE);
+            }
+        });
+
 
         // Setup video selection button with file picker intent
         btnAddVideo = findViewById(R.id.btnAddVideo); //match the btn to add the video
@@ -131,31 +163,42 @@ public class AddLessonActivity extends AppCompatActivity {
         lessonId = getIntent().getLongExtra("lessonId", -1);
         if (lessonId != -1){
             // Observe the lesson by ID
+            // Room emits again on every write of the row (e.g. the poster backfill), only the first one fills the form
             lessonViewModel.getLessonById(lessonId).observe(this, lesson -> {
                 if (lesson != null){
                     existingLesson = lesson;
+                    if (lessonShown) {
+                        return; // Would overwrite what the user typed or picked meanwhile
+                    }
+                    lessonShown = true;
 
-                    // Populate form fields with existing lesson data
-                    etLessonName.setText(lesson.getTitle()); //gets the name of the lesson
-                    etShortDis.setText(lesson.getDescription()); //gets the short des
-                    setSpinnerSelection(spnLevel, lesson.getLevel()); //gets the level of the lesson
+                    // Populate form fields with existing lesson data, after a rotation they keep the user's edits
+                    if (savedInstanceState == null) {
+                        etLessonName.setText(lesson.getTitle()); //gets the name of the lesson
+                        etShortDis.setText(lesson.getDescription()); //gets the short des
+                        setSpinnerSelection(spnLevel, lesson.getLevel()); //gets the level of the lesson
+                    }
 
-                    // Load and display existing image
-                    if (lesson.getImageUrl() != null && !lesson.getImageUrl().isEmpty()) {
+                    // Load and display existing image, unless a new one was picked before the rotation
+                    if (!isPicked(MediaIngestionViewModel.Kind.IMAGE)
+                            && lesson.getImageUrl() != null && !lesson.getImageUrl().isEmpty()) {
                         String imageUrl = lesson.getImageUrl();
                         ImageButton imageButton = findViewById(R.id.btnAddPic);
 
                         if (imageUrl.startsWith("content://") || imageUrl.startsWith("file://")) {
-                            // User-uploaded image file from device storage
+                            // User-uploaded image file from device storage, shown from its detail size when it has one
                             selectedImageUri = Uri.parse(imageUrl);
-                            imageButton.setImageURI(selectedImageUri);
+                            selectedThumbnailUrl = lesson.getThumbnailUrl();
+                            selectedDetailImageUrl = lesson.getDetailImageUrl();
+                            imageButton.setImageURI(selectedDetailImageUrl != null
+                                    ? Uri.parse(selectedDetailImageUrl) : selectedImageUri);
                         } else if (imageUrl.startsWith("android.resource://")) {
                             // Already a full resource URI - use directly
                             selectedImageUri = Uri.parse(imageUrl);
                             imageButton.setImageURI(selectedImageUri);
                         } else {
                             // Raw resource name - convert to resource ID and display
-                            int imageResId = getResources().getIdentifier(imageUrl, "drawable", getPackageName());
+                            int imageResId = ResourceRegistry.getDrawableId(this, imageUrl);
                             if (imageResId != 0) {
                                 imageButton.setImageResource(imageResId);
                                 // Create marker URI to indicate resource exists without creating invalid URI
@@ -168,10 +211,15 @@ public class AddLessonActivity extends AppCompatActivity {
 
 
                     // Load and display existing video
-                    if (lesson.getVideoUrl() != null && !lesson.getVideoUrl().isEmpty()) {
+                    if (!isPicked(MediaIngestionViewModel.Kind.VIDEO)
+                            && lesson.getVideoUrl() != null && !lesson.getVideoUrl().isEmpty()) {
                         String videoUrl = lesson.getVideoUrl();
                         VideoView videoView = findViewById(R.id.videoPreview);
-                        videoView.setVisibility(View.VISIBLE);
+                        selectedPosterUrl = lesson.getPosterUrl();
+                        selectedDurationMs = lesson.getDurationMs();
+                        // With a poster the preview only plays when tapped, the hidden VideoView makes no player
+                        boolean hasPoster = showPosterPreview(selectedPosterUrl);
+                        videoView.setVisibility(hasPoster ? View.GONE : View.VISIBLE);
 
                         // Determine video type and load accordingly
                         if (videoUrl.startsWith("android.resource://") || !videoUrl.contains("/")) {
@@ -179,7 +227,7 @@ public class AddLessonActivity extends AppCompatActivity {
                             try {
                                 if (!videoUrl.contains("/")) {
                                     // Resource name only, create full URI
-                                    int resourceId = getResources().getIdentifier(videoUrl, "raw", getPackageName());
+                                    int resourceId = ResourceRegistry.getRawId(this, videoUrl);
                                     selectedVideoUri = Uri.parse("android.resource://" + getPackageName() + "/" + resourceId);
                                 } else {
                                     selectedVideoUri = Uri.parse(videoUrl);
@@ -215,33 +263,21 @@ public class AddLessonActivity extends AppCompatActivity {
                             }
                         }
 
-                        videoView.start();
+                        if (!hasPoster) {
+                            videoView.start();
+                        }
                     }
 
 
-                    // Load and display existing text file content
-                    if (lesson.getTextFileUrl() != null && !lesson.getTextFileUrl().isEmpty()) {
+                    // Load and display existing text file content, read in the background
+                    if (!isPicked(MediaIngestionViewModel.Kind.TEXT)
+                            && lesson.getTextFileUrl() != null && !lesson.getTextFileUrl().isEmpty()) {
                         String textUrl = lesson.getTextFileUrl();
                         selectedTextUri = Uri.parse(textUrl); // Always update selectedTextUri for validation
 
                         ScrollView scrollView = findViewById(R.id.scrollView);
                         scrollView.setVisibility(View.VISIBLE);
-                        TextView txtView = findViewById(R.id.textPreview);
-                        try {
-                            // Read text content from URI
-                            InputStream inputStream = getContentResolver().openInputStream(selectedTextUri);
-                            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-                            StringBuilder builder = new StringBuilder();
-                            String line;
-                            while ((line = reader.readLine()) != null) {
-                                builder.append(line).append("\n");
-                            }
-                            txtView.setText(builder.toString());
-                            reader.close();
-                            inputStream.close();
-                        } catch (Exception e) {
-                            txtView.setText("שגיאה בטעינת קובץ הטקסט");
-                        }
+                        LessonDescriptionLoader.getInstance(this).load(lessonId, textUrl, findViewById(R.id.textPreview));
                     }
                 }
             });
@@ -301,87 +337,16 @@ public class AddLessonActivity extends AppCompatActivity {
         if (resultCode == RESULT_OK && data != null && data.getData() != null) {
             Uri uri = data.getData();
 
-            // Handle video file selection
+            // Copy the selected file to internal storage for app persistence, in the background
+            // onIngestionState shows it once the copy is done
             if (requestCode == PICK_VIDEO_REQUEST) {
-                // Copy selected video to internal storage for app persistence
-                String localPath = copyFileToInternalStorage(uri, "video", "mp4");
-                if (localPath != null) {
-                    selectedVideoUri = Uri.fromFile(new File(localPath));
-
-                    // Display video preview
-                    VideoView videoView = findViewById(R.id.videoPreview);
-                    videoView.setVisibility(View.VISIBLE);
-                    videoView.setVideoPath(localPath);
-                    videoView.start();
-                } else {
-                    Toast.makeText(this, "Failed to save video", Toast.LENGTH_SHORT).show();
-                }
+                ingestionViewModel.ingest(MediaIngestionViewModel.Kind.VIDEO, uri);
             }
-
-            // Handle text file selection result
             if (requestCode == PICK_TEXT_REQUEST) {
-                // Copy selected text file to internal storage
-                String localPath = copyFileToInternalStorage(uri, "text", "txt");
-                if (localPath != null) {
-                    selectedTextUri = Uri.fromFile(new File(localPath));
-
-                    // Display text preview
-                    TextView txtView = findViewById(R.id.textPreview);
-                    ScrollView scrollView = findViewById(R.id.scrollView);
-                    scrollView.setVisibility(View.VISIBLE);
-
-                    try {
-                        // Read and display text content
-                        BufferedReader reader = new BufferedReader(new FileReader(localPath));
-                        StringBuilder builder = new StringBuilder();
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            builder.append(line).append("\n");
-                        }
-                        txtView.setText(builder.toString());
-                        reader.close();
-                    } catch (Exception e) {
-                        txtView.setText("Error loading text file");
-                    }
-                } else {
-                    Toast.makeText(this, "Failed to save text file", Toast.LENGTH_SHORT).show();
-                }
+                ingestionViewModel.ingest(MediaIngestionViewModel.Kind.TEXT, uri);
             }
-
-            // Handle image file selection result
             if (requestCode == PICK_IMAGE_REQUEST) {
-                // Copy selected image to internal storage
-                String localPath = copyFileToInternalStorage(uri, "image", "jpg");
-                if (localPath != null) {
-                    selectedImageUri = Uri.fromFile(new File(localPath));
-
-                    // Display image preview
-                    ImageButton imageButton = findViewById(R.id.btnAddPic);
-                    imageButton.setImageURI(selectedImageUri);
-                } else {
-                    Toast.makeText(this, "Failed to save image", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            // Maintain video playback after any file selection to keep user experience smooth
-            if (selectedVideoUri != null) {
-                VideoView videoView = findViewById(R.id.videoPreview);
-                if (videoView != null && videoView.getVisibility() == View.VISIBLE) {
-                    String videoUriString = selectedVideoUri.toString();
-
-                    // Check video type and use appropriate playback method
-                    if (videoUriString.startsWith("android.resource://")) {
-                        // Raw resource video - use setVideoURI
-                        videoView.setVideoURI(selectedVideoUri);
-                    } else {
-                        // Internal storage file - use setVideoPath
-                        String videoPath = selectedVideoUri.getPath();
-                        if (videoPath != null && new File(videoPath).exists()) {
-                            videoView.setVideoPath(videoPath);
-                        }
-                    }
-                    videoView.start();
-                }
+                ingestionViewModel.ingest(MediaIngestionViewModel.Kind.IMAGE, uri);
             }
         }
     }
@@ -438,22 +403,43 @@ public class AddLessonActivity extends AppCompatActivity {
             imageUri = selectedImageUri.toString();
         }
 
-        String selectedLevel = spnLevel.getSelectedItem().toString();
+        Level selectedLevel = Level.values()[spnLevel.getSelectedItemPosition()]; //the spinner lists the levels in enum order
         String trainerName = getIntent().getStringExtra("username");
 
         if (lessonId != -1 && existingLesson != null){
-            // Update existing lesson with new data
+            // Nothing was edited, don't write the lesson again
+            if (lessonName.equals(existingLesson.getTitle())
+                    && shortDescription.equals(existingLesson.getDescription())
+                    && videoUri.equals(existingLesson.getVideoUrl())
+                    && textUri.equals(existingLesson.getTextFileUrl())
+                    && imageUri.equals(existingLesson.getImageUrl())
+                    && Objects.equals(selectedThumbnailUrl, existingLesson.getThumbnailUrl())
+                    && selectedLevel == existingLesson.getLevel()) {
+                return;
+            }
+            // Update existing lesson with new data, only the edited columns are written
+            // An unchanged video keeps the poster of the row, it may have been read while the screen was open
+            if (!videoUri.equals(existingLesson.getVideoUrl())) {
+                existingLesson.setPosterUrl(selectedPosterUrl);
+                existingLesson.setDurationMs(selectedDurationMs);
+            }
             existingLesson.setTitle(lessonName);
             existingLesson.setDescription(shortDescription);
             existingLesson.setVideoUrl(videoUri);
             existingLesson.setTextFileUrl(textUri);
             existingLesson.setImageUrl(imageUri);
+            existingLesson.setThumbnailUrl(selectedThumbnailUrl);
+            existingLesson.setDetailImageUrl(selectedDetailImageUrl);
             existingLesson.setLevel(selectedLevel);
-            lessonViewModel.update(existingLesson);
+            lessonViewModel.updateContent(existingLesson);
         }
         else {
             // Create and insert new lesson
-            Lesson lesson = new Lesson(lessonName, imageUri, shortDescription, videoUri, textUri, selectedLevel, false, false, trainerName);
+            Lesson lesson = new Lesson(lessonName, imageUri, shortDescription, videoUri, textUri, selectedLevel, trainerName);
+            lesson.setThumbnailUrl(selectedThumbnailUrl);
+            lesson.setDetailImageUrl(selectedDetailImageUrl);
+            lesson.setPosterUrl(selectedPosterUrl);
+            lesson.setDurationMs(selectedDurationMs);
             lessonViewModel.insert(lesson);
         }
     }
@@ -476,50 +462,122 @@ public class AddLessonActivity extends AppCompatActivity {
     /**
      * Sets spinner selection to match specific value
      * Used when loading existing lesson data for editing
-     * @param spinner The spinner component to update
+     * @param spinner The spinner component to update, its items are in the order of the enum
      * @param value The value to select in the spinner
      */
-    private void setSpinnerSelection(Spinner spinner, String value){
-        // Loop through all spinner options to find matching value
-        for (int i = 0; i<spinner.getCount(); i++){
-            if (spinner.getItemAtPosition(i).toString().equals(value)){
-                spinner.setSelection(i);
-                break; // Exit loop once match is found
-            }
+    private void setSpinnerSelection(Spinner spinner, Enum<?> value){
+        if (value.ordinal() < spinner.getCount()){
+            spinner.setSelection(value.ordinal());
         }
     }
 
     /**
-     * Copies selected file from external storage to app's internal storage
-     * This ensures files remain accessible even if original is deleted from device
-     * Critical for app persistence - users can delete original files without breaking lessons
-     * @param sourceUri URI of the source file from device storage
-     * @param prefix Prefix for the copied file name (video, text, image)
-     * @param extension File extension for the copied file
-     * @return Absolute path of the copied file in internal storage, or null if failed
+     * Shows the copy of a picked file: its progress while it runs, its preview once it is done
+     * Also called again with the last state after the screen rotates
+     * @param kind Which file of the lesson was copied
+     * @param state Where the copy is, null before the first pick
      */
-    private String copyFileToInternalStorage(Uri sourceUri, String prefix, String extension) {
-        // Create unique filename with timestamp to avoid conflicts
-        String fileName = prefix + "_" + System.currentTimeMillis() + "." + extension;
-        File destinationFile = new File(getFilesDir(), fileName);
-
-        try (InputStream in = getContentResolver().openInputStream(sourceUri);
-             OutputStream out = new FileOutputStream(destinationFile)) {
-
-            // Copy file in chunks for memory efficiency
-            byte[] buffer = new byte[4096];
-            int length;
-            while ((length = in.read(buffer)) > 0) {
-                out.write(buffer, 0, length);
-            }
+    private void onIngestionState(MediaIngestionViewModel.Kind kind, MediaIngestionViewModel.State state) {
+        if (state == null) return;
+        switch (state.status) {
+            case COPYING:
+                ingestPanel.setVisibility(View.VISIBLE);
+                ingestProgress.setIndeterminate(state.percent < 0); // The provider didn't tell the size
+                if (state.percent >= 0) {
+                    ingestProgress.setProgress(state.percent);
+                    tvIngestStatus.setText(getString(R.string.ingest_percent, state.percent));
+                } else {
+                    tvIngestStatus.setText(R.string.ingest_copying);
+                }
+                break;
+            case DONE:
+                showIngestedFile(kind, state);
+                break;
+            case FAILED:
+                Toast.makeText(this, failedMessage(kind), Toast.LENGTH_SHORT).show();
+                ingestionViewModel.clearFailure(kind); // Shown once, not again after a rotation
+                break;
+            case CANCELLED:
+                break;
+        }
+    }
 
-            return destinationFile.getAbsolutePath();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    // The message of a copy that failed, by the kind of file
+    private int failedMessage(MediaIngestionViewModel.Kind kind) {
+        switch (kind) {
+            case VIDEO: return R.string.ingest_failed_video;
+            case TEXT: return R.string.ingest_failed_text;
+            default: return R.string.ingest_failed_image;
         }
     }
 
+    // true when a file of this kind was picked and copied, it replaces the one of the lesson
+    private boolean isPicked(MediaIngestionViewModel.Kind kind) {
+        MediaIngestionViewModel.State state = ingestionViewModel.getState(kind).getValue();
+        return state != null && state.status == MediaIngestionViewModel.State.Status.DONE;
+    }
+
+    /**
+     * Uses a copied file for the lesson and shows its preview
+     */
+    private void showIngestedFile(MediaIngestionViewModel.Kind kind, MediaIngestionViewModel.State state) {
+        Uri fileUri = Uri.fromFile(state.file);
+        ImageTranscoder.Result images = state.images;
+        switch (kind) {
+            case VIDEO:
+                selectedVideoUri = fileUri;
+                VideoPosterExtractor.Result poster = state.poster;
+                selectedPosterUrl = poster != null && poster.poster != null ? Uri.fromFile(poster.poster).toString() : null;
+                selectedDurationMs = poster != null ? poster.durationMs : null; // Read again in the background when null
+                // Display video preview, its poster when it has one - the video plays when the poster is tapped
+                VideoView videoView = findViewById(R.id.videoPreview);
+                boolean hasPoster = showPosterPreview(selectedPosterUrl);
+                videoView.setVisibility(hasPoster ? View.GONE : View.VISIBLE);
+                videoView.setVideoPath(state.file.getAbsolutePath());
+                if (!hasPoster) {
+                    videoView.start();
+                }
+                break;
+            case TEXT:
+                selectedTextUri = fileUri;
+                // Display text preview, read in the background (-1: not a saved lesson yet)
+                ScrollView scrollView = findViewById(R.id.scrollView);
+                scrollView.setVisibility(View.VISIBLE);
+                LessonDescriptionLoader.getInstance(this).load(-1, fileUri.toString(), findViewById(R.id.textPreview));
+                break;
+            case IMAGE:
+                selectedImageUri = fileUri;
+                selectedThumbnailUrl = images != null ? Uri.fromFile(images.card).toString() : null;
+                selectedDetailImageUrl = images != null ? Uri.fromFile(images.detail).toString() : null;
+                // Display image preview, the detail size is enough for the button
+                ImageButton imageButton = findViewById(R.id.btnAddPic);
+                imageButton.setImageURI(images != null ? Uri.fromFile(images.detail) : selectedImageUri);
+                break;
+        }
+    }
+
+    /**
+     * Shows the poster frame of the video instead of playing it, a tap swaps it for the playing video
+     * @param posterUrl The poster, null when the video has none
+     * @return false when there is no poster, the video should be shown then
+     */
+    private boolean showPosterPreview(String posterUrl) {
+        ImageView posterPreview = findViewById(R.id.posterPreview);
+        if (posterUrl == null) {
+            posterPreview.setVisibility(View.GONE);
+            return false;
+        }
+        posterPreview.setImageURI(Uri.parse(posterUrl));
+        posterPreview.setVisibility(View.VISIBLE);
+        posterPreview.setOnClickListener(v -> {
+            posterPreview.setVisibility(View.GONE);
+            VideoView videoView = findViewById(R.id.videoPreview);
+            videoView.setVisibility(View.VISIBLE);
+            videoView.start();
+        });
+        return true;
+    }
+
     /**
      * Helper method to identify if video URL represents a raw resource
      * Used to determine correct video loading method
@@ -546,7 +604,7 @@ public class AddLessonActivity extends AppCompatActivity {
             try {
                 if (!videoUrl.contains("/")) {
                     // Resource name only - create full URI
-                    int resourceId = getResources().getIdentifier(videoUrl, "raw", getPackageName());
+                    int resourceId = ResourceRegistry.getRawId(this, videoUrl);
                     selectedVideoUri = Uri.parse("android.resource://" + getPackageName() + "/" + resourceId);
                 } else {
                     selectedVideoUri = Uri.parse(videoUrl);
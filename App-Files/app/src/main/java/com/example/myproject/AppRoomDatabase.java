@@ -2,31 +2,176 @@ package com.example.myproject;
 
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 //tells Room that its a DB
-@Database(entities = {User.class, Lesson.class}, version = 4, exportSchema = false)
+@Database(entities = {User.class, Lesson.class, LessonFts.class, UserLessonState.class}, version = 11, exportSchema = false)
+@TypeConverters(EnumConverters.class) //level, role and gender are stored as small integers
 public abstract class AppRoomDatabase extends RoomDatabase {
 
     //the Dao methods, here we connects between them to Room
     public abstract UserDao userDao();
     public abstract LessonDao lessonDao();
+    public abstract UserLessonStateDao userLessonStateDao();
 
 
     private static volatile AppRoomDatabase INSTANCE;
 
-    //executor
-    private static final int NUMBER_OF_THREADS = 4;
-    public static final ExecutorService databaseWriteExecutor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    //prepackaged DB with the default lessons, generated at build time from src/main/seed
+    private static final String SEED_DATABASE_ASSET = "databases/moveit_seed.db";
+
+    //all the background DB work of the app - one write lane and a read lane
+    //Room keeps its own executors for LiveData, paging and @Transaction queries,
+    //so they don't wait behind the app's writes or get rejected by a full lane
+    private static final DatabaseScheduler scheduler = new DatabaseScheduler();
+
+    public static DatabaseScheduler getScheduler(){
+        return scheduler;
+    }
+
+    //version 5 adds the lesson_table indexes, the data itself stays as it is
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_level` ON `lesson_table` (`level`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_trainerName` ON `lesson_table` (`trainerName`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_isFavorites` ON `lesson_table` (`isFavorites`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_isRegistered` ON `lesson_table` (`isRegistered`)");
+        }
+    };
+
+    //version 6 adds the full-text search index, filled from the existing lessons
+    //the text files are read into it later by LessonSearchIndexer
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(LessonFts.CREATE_TABLE);
+            for (String trigger : LessonFts.CREATE_TRIGGERS) {
+                db.execSQL(trigger);
+            }
+            db.execSQL("INSERT INTO lesson_fts(rowid, title, description, body, bodyUrl)"
+                    + " SELECT id, title, description, '', NULL FROM lesson_table");
+        }
+    };
+
+    //version 7 stores level, role and gender as integer codes instead of Hebrew text
+    //SQLite can't change a column type, so both tables are copied into new ones
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE `lesson_table_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `title` TEXT NOT NULL, `imageUrl` TEXT NOT NULL, `description` TEXT NOT NULL,"
+                    + " `videoUrl` TEXT NOT NULL, `textFileUrl` TEXT NOT NULL, `level` INTEGER NOT NULL,"
+                    + " `isRegistered` INTEGER NOT NULL, `isFavorites` INTEGER NOT NULL, `trainerName` TEXT NOT NULL)");
+            db.execSQL("INSERT INTO lesson_table_new (id, title, imageUrl, description, videoUrl, textFileUrl,"
+                    + " level, isRegistered, isFavorites, trainerName)"
+                    + " SELECT id, title, imageUrl, description, videoUrl, textFileUrl,"
+                    + " CASE level WHEN 'בינוני' THEN 2 WHEN 'מתקדמים' THEN 3 ELSE 1 END,"
+                    + " isRegistered, isFavorites, trainerName FROM lesson_table");
+            db.execSQL("DROP TABLE lesson_table"); //also drops its indexes and search triggers
+            db.execSQL("ALTER TABLE lesson_table_new RENAME TO lesson_table");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_level` ON `lesson_table` (`level`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_trainerName` ON `lesson_table` (`trainerName`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_isFavorites` ON `lesson_table` (`isFavorites`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_isRegistered` ON `lesson_table` (`isRegistered`)");
+            for (String trigger : LessonFts.CREATE_TRIGGERS) {
+                db.execSQL(trigger);
+            }
+
+            db.execSQL("CREATE TABLE `user_table_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `username` TEXT NOT NULL, `role` INTEGER NOT NULL, `level` INTEGER,"
+                    + " `phone` TEXT, `age` INTEGER, `gender` INTEGER)");
+            db.execSQL("INSERT INTO user_table_new (id, username, role, level, phone, age, gender)"
+                    + " SELECT id, username,"
+                    + " CASE role WHEN 'מאמן' THEN 1 ELSE 2 END,"
+                    + " CASE level WHEN 'מתחילים' THEN 1 WHEN 'בינוני' THEN 2 WHEN 'מתקדמים' THEN 3 END,"
+                    + " phone, age,"
+                    + " CASE gender WHEN 'זכר' THEN 1 WHEN 'נקבה' THEN 2 WHEN 'אחר' THEN 3 END"
+                    + " FROM user_table");
+            db.execSQL("DROP TABLE user_table");
+            db.execSQL("ALTER TABLE user_table_new RENAME TO user_table");
+        }
+    };
+
+    //version 8 keeps favorites and progress per user in user_lesson_state
+    //the flags on lesson_table were shared by everyone on the device, so every existing user starts with them
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `user_lesson_state` (`userId` INTEGER NOT NULL,"
+                    + " `lessonId` INTEGER NOT NULL, `isRegistered` INTEGER NOT NULL, `isFavorites` INTEGER NOT NULL,"
+                    + " PRIMARY KEY(`userId`, `lessonId`),"
+                    + " FOREIGN KEY(`userId`) REFERENCES `user_table`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE,"
+                    + " FOREIGN KEY(`lessonId`) REFERENCES `lesson_table`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_user_lesson_state_lessonId` ON `user_lesson_state` (`lessonId`)");
+            db.execSQL("INSERT INTO user_lesson_state (userId, lessonId, isRegistered, isFavorites)"
+                    + " SELECT user_table.id, lesson_table.id, lesson_table.isRegistered, lesson_table.isFavorites"
+                    + " FROM user_table, lesson_table WHERE lesson_table.isRegistered = 1 OR lesson_table.isFavorites = 1");
+        }
+    };
+
+    //version 9 adds the transcoded card and detail images, lessons saved before keep using their original image
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE lesson_table ADD COLUMN `thumbnailUrl` TEXT");
+            db.execSQL("ALTER TABLE lesson_table ADD COLUMN `detailImageUrl` TEXT");
+        }
+    };
+
+    //version 10 adds the video poster and duration, VideoPosterExtractor reads them for the existing lessons
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE lesson_table ADD COLUMN `posterUrl` TEXT");
+            db.execSQL("ALTER TABLE lesson_table ADD COLUMN `durationMs` INTEGER");
+        }
+    };
+
+    //version 11 drops the catalog isRegistered/isFavorites columns, user_lesson_state has the flags since version 8
+    //SQLite can't drop an indexed column, so the table is copied like in MIGRATION_6_7
+    //(foreign keys are off during a migration, so the user_lesson_state rows stay)
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE `lesson_table_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `title` TEXT NOT NULL, `imageUrl` TEXT NOT NULL, `description` TEXT NOT NULL,"
+                    + " `videoUrl` TEXT NOT NULL, `textFileUrl` TEXT NOT NULL, `level` INTEGER NOT NULL,"
+                    + " `trainerName` TEXT NOT NULL, `thumbnailUrl` TEXT, `detailImageUrl` TEXT,"
+                    + " `posterUrl` TEXT, `durationMs` INTEGER)");
+            db.execSQL("INSERT INTO lesson_table_new (id, title, imageUrl, description, videoUrl, textFileUrl,"
+                    + " level, trainerName, thumbnailUrl, detailImageUrl, posterUrl, durationMs)"
+                    + " SELECT id, title, imageUrl, description, videoUrl, textFileUrl,"
+                    + " level, trainerName, thumbnailUrl, detailImageUrl, posterUrl, durationMs FROM lesson_table");
+            db.execSQL("DROP TABLE lesson_table"); //also drops its indexes and search triggers
+            db.execSQL("ALTER TABLE lesson_table_new RENAME TO lesson_table");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_level` ON `lesson_table` (`level`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lesson_table_trainerName` ON `lesson_table` (`trainerName`)");
+            for (String trigger : LessonFts.CREATE_TRIGGERS) {
+                db.execSQL(trigger);
+            }
+        }
+    };
+
+    //Room doesn't create triggers, add the search index ones to a new DB
+    //(the prepackaged DB has them already, from seed/schema.sql)
+    static final RoomDatabase.Callback roomCallback = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            super.onCreate(db);
+            for (String trigger : LessonFts.CREATE_TRIGGERS) {
+                db.execSQL(trigger);
+            }
+        }
+    };
 
     //if its null, build the DB
     public static AppRoomDatabase getDatabase(final Context context){
@@ -39,8 +184,10 @@ public abstract class AppRoomDatabase extends RoomDatabase {
                             AppRoomDatabase.class,
                             "my_database"
                     )
+                            .createFromAsset(SEED_DATABASE_ASSET) //the default lessons are already inside
+                            .addMigrations(MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11)
                             .addCallback(roomCallback)
-                            .fallbackToDestructiveMigration() //add destroy and rebuild
+                            .fallbackToDestructiveMigrationFrom(1, 2, 3) //versions before 4 have no migration, rebuild them
                             .build();
                 }
             }
@@ -48,87 +195,6 @@ public abstract class AppRoomDatabase extends RoomDatabase {
         return INSTANCE;
     }
 
-    //its happens on the first time that the app is up, i.e. default lessons
-    private static final RoomDatabase.Callback roomCallback = new RoomDatabase.Callback(){
-        @Override
-        public void onCreate(@NonNull SupportSQLiteDatabase db){
-            super.onCreate(db);
-
-            Log.d("RoomDB", "✅ onCreate DB callback is running");
-
-            databaseWriteExecutor.execute(()->{
-
-                Log.d("RoomDB", "✅ Inserting default lessons");
-
-                UserDao userDao = INSTANCE.userDao();
-                LessonDao lessonDao = INSTANCE.lessonDao();
-
-                lessonDao.insert(new Lesson(
-                        "אימון פלג גוף עליון",
-                        "cbun_upper_body_pic",
-                        "פלג גוף עליון חזק – גב, חזה, ידיים.",
-                        "android.resource://com.example.myproject/"+R.raw.cbum_upper_body,
-                        "android.resource://com.example.myproject/"+R.raw.upper_body_desc,
-                        "מתחילים",
-                        false,
-                        false,
-                        "כריס באמסטד"
-                ));
-
-                lessonDao.insert(new Lesson(
-                        "אימון בטן",
-                        "abs_pic",
-                        "אימון בטן לחיזוק הליבה והכוח.",
-                        "android.resource://com.example.myproject/"+R.raw.abs_video,
-                        "android.resource://com.example.myproject/"+R.raw.abs_desc,
-                        "בינוני",
-                        false,
-                        false,
-                        "ריאן טרי"
-                ));
-
-                lessonDao.insert(new Lesson(
-                        "אימון רגליים",
-                        "cbum_legs_pic",
-                        "חיזוק רגליים יציב, כוח לכל הגוף.",
-                        "android.resource://com.example.myproject/"+R.raw.legs_cbum_video,
-                        "android.resource://com.example.myproject/"+R.raw.legs_desc,
-                        "בינוני",
-                        false,
-                        false,
-                        "כריס באמסטד"
-                ));
-
-                lessonDao.insert(new Lesson(
-                        "אימון PUSH",
-                        "cbum_push",
-                        "אימון חזה כתפיים ויד אחורית.",
-                        "android.resource://com.example.myproject/"+R.raw.push_cbum_video,
-                        "android.resource://com.example.myproject/"+R.raw.chest_desc,
-                        "מתחילים",
-                        false,
-                        false,
-                        "כריס באמסטד"
-                ));
-
-                lessonDao.insert(new Lesson(
-                        "אימון כתפיים",
-                        "cbun_shoulder_pic",
-                        "כתפיים חזקות – שליטה ובנייה.",
-                        "android.resource://com.example.myproject/"+R.raw.cbum_shoulders_video,
-                        "android.resource://com.example.myproject/"+R.raw.shoulders_desc,
-                        "מתקדמים",
-                        false,
-                        false,
-                        "כריס באמסטד"
-                ));
-
-
-
-            });
-
-        }
-    };
 
 
 
@@ -0,0 +1,196 @@
+package com.example.myproject;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The one place where database work runs off the main thread, owned by AppRoomDatabase
+ * - Write lane: a single thread, so inserts/updates/deletes run one after another in order
+ * - Read lane: a few threads for the app's own queries
+ * Room's LiveData, paging and @Transaction queries run on Room's own executors, not on the lanes.
+ * Each lane counts its queue depth, rejected tasks, and keeps histograms of how long tasks
+ * waited in the queue and how long they ran, so DB contention can be seen in production -
+ * MoveItApplication logs them every time the app goes to the background.
+ */
+public class DatabaseScheduler {
+
+    private static final String TAG = "DatabaseScheduler";
+    private static final int READ_THREADS = 3; // Parallel queries
+    private static final int WRITE_QUEUE_CAPACITY = 4096; // Writes waiting before new ones are rejected
+    private static final int READ_QUEUE_CAPACITY = 2048; // Reads waiting before new ones are rejected
+
+    private final Lane writeLane = new Lane("db-write", 1, WRITE_QUEUE_CAPACITY);
+    private final Lane readLane = new Lane("db-read", READ_THREADS, READ_QUEUE_CAPACITY);
+
+    // Runs a database write on the write lane
+    public void write(Runnable task) {
+        writeLane.execute(task);
+    }
+
+    // Runs a database write on the write lane and returns its result
+    public <T> Future<T> submitWrite(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        writeLane.execute(future);
+        return future;
+    }
+
+    // Runs a database query on the read lane
+    public void read(Runnable task) {
+        readLane.execute(task);
+    }
+
+    // Runs a database query on the read lane and returns its result
+    public <T> Future<T> submitRead(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        readLane.execute(future);
+        return future;
+    }
+
+    // Current numbers of the write lane
+    public LaneStats getWriteStats() {
+        return writeLane.snapshot();
+    }
+
+    // Current numbers of the read lane
+    public LaneStats getReadStats() {
+        return readLane.snapshot();
+    }
+
+    // Writes the numbers of both lanes to the log
+    public void logStats() {
+        Log.i(TAG, getWriteStats().toString());
+        Log.i(TAG, getReadStats().toString());
+    }
+
+    /**
+     * One lane: a thread pool with a bounded queue and its counters
+     */
+    private static class Lane implements Executor {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong rejected = new AtomicLong();
+        private final LatencyHistogram waitTimes = new LatencyHistogram();
+        private final LatencyHistogram runTimes = new LatencyHistogram();
+
+        Lane(String name, int threads, int queueCapacity) {
+            this.name = name;
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+                    (runnable, pool) -> {
+                        // Count it before failing, so an overloaded lane shows up in the stats
+                        rejected.incrementAndGet();
+                        Log.e(TAG, name + " rejected a task, queue depth " + pool.getQueue().size());
+                        throw new RejectedExecutionException(name + " is full");
+                    });
+        }
+
+        @Override
+        public void execute(@NonNull Runnable task) {
+            long queuedAt = SystemClock.elapsedRealtimeNanos();
+            executor.execute(() -> {
+                long startedAt = SystemClock.elapsedRealtimeNanos();
+                waitTimes.record(startedAt - queuedAt);
+                try {
+                    task.run();
+                } finally {
+                    runTimes.record(SystemClock.elapsedRealtimeNanos() - startedAt);
+                }
+            });
+        }
+
+        LaneStats snapshot() {
+            return new LaneStats(name, executor.getQueue().size(), executor.getActiveCount(),
+                    executor.getCompletedTaskCount(), rejected.get(),
+                    waitTimes.snapshot(), runTimes.snapshot());
+        }
+    }
+
+    /**
+     * Counts task durations in power-of-two millisecond buckets: <1ms, <2ms, <4ms ... <1024ms, longer
+     */
+    private static class LatencyHistogram {
+        private static final int BUCKETS = 12;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            counts.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+        }
+
+        long[] snapshot() {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Numbers of one lane at the moment it was read
+     * Histogram bucket i counts tasks under 2^i ms, the last bucket counts everything longer
+     */
+    public static class LaneStats {
+        public final String lane;
+        public final int queueDepth;
+        public final int activeTasks;
+        public final long completedTasks;
+        public final long rejectedTasks;
+        public final long[] waitHistogram;
+        public final long[] runHistogram;
+
+        LaneStats(String lane, int queueDepth, int activeTasks, long completedTasks, long rejectedTasks,
+                  long[] waitHistogram, long[] runHistogram) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.activeTasks = activeTasks;
+            this.completedTasks = completedTasks;
+            this.rejectedTasks = rejectedTasks;
+            this.waitHistogram = waitHistogram;
+            this.runHistogram = runHistogram;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s queued=%d active=%d completed=%d rejected=%d wait=%s run=%s",
+                    lane, queueDepth, activeTasks, completedTasks, rejectedTasks,
+                    formatHistogram(waitHistogram), formatHistogram(runHistogram));
+        }
+
+        private static String formatHistogram(long[] histogram) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < histogram.length; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(i == histogram.length - 1 ? ">=" + (1 << (i - 1)) : "<" + (1 << i))
+                        .append("ms:").append(histogram[i]);
+            }
+            return sb.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.myproject;
+
+import androidx.room.TypeConverter;
+
+//stores the enums of the entities as their small integer codes
+public class EnumConverters {
+
+    @TypeConverter
+    public static Integer fromLevel(Level level) {
+        return level == null ? null : level.code;
+    }
+
+    @TypeConverter
+    public static Level toLevel(Integer code) {
+        return Level.fromCode(code);
+    }
+
+    @TypeConverter
+    public static Integer fromRole(Role role) {
+        return role == null ? null : role.code;
+    }
+
+    @TypeConverter
+    public static Role toRole(Integer code) {
+        return Role.fromCode(code);
+    }
+
+    @TypeConverter
+    public static Integer fromGender(Gender gender) {
+        return gender == null ? null : gender.code;
+    }
+
+    @TypeConverter
+    public static Gender toGender(Integer code) {
+        return Gender.fromCode(code);
+    }
+}
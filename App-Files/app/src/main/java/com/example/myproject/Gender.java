@@ -0,0 +1,33 @@
+package com.example.myproject;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+
+//gender of a user, in the order of the settings spinner - stored as its code
+public enum Gender {
+    MALE(1, R.string.gender_male),
+    FEMALE(2, R.string.gender_female),
+    OTHER(3, R.string.gender_other);
+
+    public final int code; //the value in the database, never change it
+    @StringRes
+    public final int labelRes; //name shown to the user
+
+    Gender(int code, @StringRes int labelRes) {
+        this.code = code;
+        this.labelRes = labelRes;
+    }
+
+    @Nullable
+    public static Gender fromCode(@Nullable Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (Gender gender : values()) {
+            if (gender.code == code) {
+                return gender;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.myproject;
+
+import android.graphics.Bitmap;
+import android.graphics.ImageDecoder;
+import android.util.Size;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Makes the two sizes of a lesson image when it is picked, so no screen decodes the original:
+ * a card thumbnail for the lessons list and a detail image for the lesson screens.
+ * Both are WebP next to the original in the media store, named after it (<hash>_card.webp),
+ * so an image picked again is not transcoded again.
+ * The methods block, MediaIngestionViewModel runs them on its background thread.
+ */
+public class ImageTranscoder {
+
+    static final int CARD_MAX_PIXELS = 320; // Longest side of the card thumbnail, the card shows it at about 80dp
+    static final int DETAIL_MAX_PIXELS = 1280; // Longest side of the detail image, about a phone screen
+    private static final int CARD_QUALITY = 75;
+    private static final int DETAIL_QUALITY = 85;
+
+    /**
+     * The transcoded files of one image
+     */
+    public static final class Result {
+        public final File card;
+        public final File detail;
+
+        Result(File card, File detail) {
+            this.card = card;
+            this.detail = detail;
+        }
+    }
+
+    /**
+     * Makes the card thumbnail and the detail image of a stored image, or finds them from an earlier pick
+     * @param original The image in the media store
+     */
+    public Result transcode(File original) throws IOException {
+        String name = original.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        File directory = original.getParentFile();
+        File card = new File(directory, base + "_card.webp");
+        File detail = new File(directory, base + "_detail.webp");
+        write(original, detail, DETAIL_MAX_PIXELS, DETAIL_QUALITY);
+        write(original, card, CARD_MAX_PIXELS, CARD_QUALITY);
+        return new Result(card, detail);
+    }
+
+    private void write(File original, File target, int maxPixels, int quality) throws IOException {
+        if (target.exists()) {
+            target.setLastModified(System.currentTimeMillis()); // Fresh again, like its original
+            return;
+        }
+        Bitmap bitmap = ImageDecoder.decodeBitmap(ImageDecoder.createSource(original), (decoder, info, src) -> {
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE); // Compressed right after
+            Size size = info.getSize();
+            float scale = (float) maxPixels / Math.max(size.getWidth(), size.getHeight());
+            if (scale < 1f) { // Smaller images keep their size
+                decoder.setTargetSize(
+                        Math.max(1, Math.round(size.getWidth() * scale)),
+                        Math.max(1, Math.round(size.getHeight() * scale)));
+            }
+        });
+        File part = new File(target.getParentFile(), target.getName() + ".part");
+        try (OutputStream out = new FileOutputStream(part)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.WEBP_LOSSY, quality, out)) {
+                throw new IOException("Can't encode " + original);
+            }
+        } catch (IOException e) {
+            part.delete();
+            throw e;
+        } finally {
+            bitmap.recycle();
+        }
+        // Rename at the end so a half written image is never read
+        if (!part.renameTo(target)) {
+            part.delete();
+            throw new IOException("Can't rename " + part + " to " + target);
+        }
+    }
+}
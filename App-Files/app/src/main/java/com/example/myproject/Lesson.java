@@ -1,12 +1,19 @@
 package com.example.myproject;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-//table for our lessons
-@Entity(tableName = "lesson_table")
+//table for our lessons, indexed on the columns the lists filter by
+//what each user marked (registered, favorite) is in user_lesson_state (UserLessonState)
+@Entity(tableName = "lesson_table",
+        indices = {
+                @Index("level"),
+                @Index("trainerName")
+        })
 public class Lesson {
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = "id")
@@ -22,6 +29,16 @@ public class Lesson {
     @ColumnInfo(name = "imageUrl")
     private String imageUrl;
 
+    //the image made small for the lesson card (ImageTranscoder), null for the built in lessons - the card uses imageUrl then
+    @Nullable
+    @ColumnInfo(name = "thumbnailUrl")
+    private String thumbnailUrl;
+
+    //the image made screen sized for the lesson screens, null like thumbnailUrl
+    @Nullable
+    @ColumnInfo(name = "detailImageUrl")
+    private String detailImageUrl;
+
     //short description of the lesson
     @NonNull
     @ColumnInfo(name = "description")
@@ -32,6 +49,16 @@ public class Lesson {
     @ColumnInfo(name = "videoUrl")
     private String videoUrl;
 
+    //a frame of the video (VideoPosterExtractor) shown until the video plays, null when there is none
+    @Nullable
+    @ColumnInfo(name = "posterUrl")
+    private String posterUrl;
+
+    //length of the video, null until it was read, -1 when the video can't be read
+    @Nullable
+    @ColumnInfo(name = "durationMs")
+    private Long durationMs;
+
     //text file of the lesson
     @NonNull
     @ColumnInfo(name = "textFileUrl")
@@ -40,15 +67,7 @@ public class Lesson {
     //level of the lesson
     @NonNull
     @ColumnInfo(name = "level")
-    private String level;
-
-    @NonNull
-    @ColumnInfo(name = "isRegistered")
-    private Boolean isRegistered;
-
-    @NonNull
-    @ColumnInfo(name = "isFavorites")
-    private Boolean isFavorites;
+    private Level level;
 
     @NonNull
     @ColumnInfo(name = "trainerName")
@@ -57,15 +76,13 @@ public class Lesson {
 
 
 
-    public Lesson(@NonNull String title, @NonNull String imageUrl, @NonNull String description, @NonNull String videoUrl, @NonNull String textFileUrl, @NonNull String level, @NonNull Boolean isRegistered, @NonNull Boolean isFavorites, @NonNull String trainerName) {
+    public Lesson(@NonNull String title, @NonNull String imageUrl, @NonNull String description, @NonNull String videoUrl, @NonNull String textFileUrl, @NonNull Level level, @NonNull String trainerName) {
         this.title = title;
         this.imageUrl = imageUrl;
         this.description = description;
         this.videoUrl = videoUrl;
         this.textFileUrl = textFileUrl;
         this.level = level;
-        this.isRegistered = isRegistered;
-        this.isFavorites = isFavorites;
         this.trainerName = trainerName;
     }
 
@@ -95,6 +112,24 @@ public class Lesson {
         this.imageUrl = imageUrl;
     }
 
+    @Nullable
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(@Nullable String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    @Nullable
+    public String getDetailImageUrl() {
+        return detailImageUrl;
+    }
+
+    public void setDetailImageUrl(@Nullable String detailImageUrl) {
+        this.detailImageUrl = detailImageUrl;
+    }
+
     @NonNull
     public String getDescription() {
         return description;
@@ -113,41 +148,40 @@ public class Lesson {
         this.videoUrl = videoUrl;
     }
 
-    @NonNull
-    public String getTextFileUrl() {
-        return textFileUrl;
+    @Nullable
+    public String getPosterUrl() {
+        return posterUrl;
     }
 
-    public void setTextFileUrl(@NonNull String textFileUrl) {
-        this.textFileUrl = textFileUrl;
+    public void setPosterUrl(@Nullable String posterUrl) {
+        this.posterUrl = posterUrl;
     }
 
-    @NonNull
-    public String getLevel() {
-        return level;
+    @Nullable
+    public Long getDurationMs() {
+        return durationMs;
     }
 
-    public void setLevel(@NonNull String level) {
-        this.level = level;
+    public void setDurationMs(@Nullable Long durationMs) {
+        this.durationMs = durationMs;
     }
 
-
     @NonNull
-    public Boolean getRegistered() {
-        return isRegistered;
+    public String getTextFileUrl() {
+        return textFileUrl;
     }
 
-    public void setRegistered(@NonNull Boolean registered) {
-        isRegistered = registered;
+    public void setTextFileUrl(@NonNull String textFileUrl) {
+        this.textFileUrl = textFileUrl;
     }
 
     @NonNull
-    public Boolean getFavorites() {
-        return isFavorites;
+    public Level getLevel() {
+        return level;
     }
 
-    public void setFavorites(@NonNull Boolean favorites) {
-        isFavorites = favorites;
+    public void setLevel(@NonNull Level level) {
+        this.level = level;
     }
 
     @NonNull
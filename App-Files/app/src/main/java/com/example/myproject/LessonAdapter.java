@@ -3,8 +3,7 @@ package com.example.myproject;
 
 import android.content.Context;
 import android.content.Intent;
-import android.net.Uri;
-import android.util.Log;
+import android.os.Trace;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,6 +14,9 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
@@ -24,21 +26,66 @@ import java.util.List;
  * RecyclerView Adapter for displaying lesson cards in a list
  * Handles lesson data binding, user interactions (favorites, registration),
  * and navigation to lesson details. Supports both raw resources and user-uploaded content.
+ * Lessons arrive as pages from the database, so only the pages near the screen are kept in memory.
+ * Each item is a LessonCard with only the columns the card shows, the full lesson is loaded by its screens.
  */
 
-public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonViewHolder> {
+public class LessonAdapter extends PagingDataAdapter<LessonCard, LessonAdapter.LessonViewHolder> {
+
+    // Change flags sent from the diff to onBindViewHolder, so a toggle rebinds only its own view
+    private static final int PAYLOAD_FAVORITE = 1;
+    private static final int PAYLOAD_REGISTERED = 1 << 1;
+
+    /**
+     * Compares lessons between two pages so only rows that really changed are rebound
+     * The diff itself runs on a background thread inside the paging differ
+     */
+    private static final DiffUtil.ItemCallback<LessonCard> DIFF_CALLBACK = new DiffUtil.ItemCallback<LessonCard>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LessonCard oldLesson, @NonNull LessonCard newLesson) {
+            return oldLesson.getId() == newLesson.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LessonCard oldLesson, @NonNull LessonCard newLesson) {
+            return oldLesson.getTitle().equals(newLesson.getTitle())
+                    && oldLesson.getDescription().equals(newLesson.getDescription())
+                    && oldLesson.getImageUrl().equals(newLesson.getImageUrl())
+                    && oldLesson.isRegistered() == newLesson.isRegistered()
+                    && oldLesson.isFavorites() == newLesson.isFavorites();
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull LessonCard oldLesson, @NonNull LessonCard newLesson) {
+            // Only the favorite/registration flags changed - send them so the image isn't reloaded
+            if (oldLesson.getTitle().equals(newLesson.getTitle())
+                    && oldLesson.getDescription().equals(newLesson.getDescription())
+                    && oldLesson.getImageUrl().equals(newLesson.getImageUrl())) {
+                int changes = 0;
+                if (oldLesson.isFavorites() != newLesson.isFavorites()) {
+                    changes |= PAYLOAD_FAVORITE;
+                }
+                if (oldLesson.isRegistered() != newLesson.isRegistered()) {
+                    changes |= PAYLOAD_REGISTERED;
+                }
+                return changes;
+            }
+            return null; // Full rebind
+        }
+    };
 
-    private List<Lesson> lessonList;
     private OnFavoriteClickListener favoriteClickListener;
     private OnCheckboxChangedListener checkboxChangedListener;
     private Context context;
+    private final LessonImageLoader imageLoader; // Loads the card images off the main thread
 
     /**
      * Interface for handling long click events on lesson items
      * Used for lesson management actions (edit, delete)
      */
     public interface OnLongClickListener {
-        void onLongClick(Lesson lesson);
+        void onLongClick(LessonCard lesson);
     }
 
     private OnLongClickListener onLongClickListener;
@@ -58,7 +105,9 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
      * @param context Application context for UI operations
      */
     public LessonAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
+        this.imageLoader = LessonImageLoader.getInstance(context);
     }
 
 
@@ -95,15 +144,6 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
         this.checkboxChangedListener = listener;
     }
 
-    /**
-     * Updates the lesson list and refreshes the UI
-     * @param lessonList New list of lessons to display
-     */
-    public void setLessons(List<Lesson> lessonList){
-        this.lessonList = lessonList;
-        notifyDataSetChanged();
-    }
-
     /**
      * ViewHolder class that holds references to the views in each lesson card
      * Contains UI elements: checkbox, image, lesson name, description, and favorite button
@@ -152,31 +192,18 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
      */
     @Override
     public void onBindViewHolder(@NonNull LessonViewHolder holder, int position){
-        Lesson lesson = lessonList.get(position);
+        LessonCard lesson = getItem(position);
+        if (lesson == null) {
+            return; // Page not loaded yet
+        }
 
         // Set lesson text content
         holder.lessonName.setText(lesson.getTitle());
         holder.lessonDescription.setText(lesson.getDescription());
 
 
-        String imageUrl = lesson.getImageUrl();
-
-        if (imageUrl.startsWith("content://") || imageUrl.startsWith("file://")){
-            // User-uploaded image from device storage
-            holder.roundedImage.setImageURI(Uri.parse(imageUrl));
-        }
-        else {
-            // Raw resource image from app drawable folder
-            int imageResId = holder.itemView.getContext().getResources()
-                    .getIdentifier(lesson.getImageUrl(), "drawable", holder.itemView.getContext().getPackageName());
-
-            //check why pic don't shows
-            if (imageResId != 0) {
-                holder.roundedImage.setImageResource(imageResId);
-            } else {
-                Log.e("Adapter", "Image resource not found for: " + lesson.getImageUrl());
-            }
-        }
+        // Decoded at card size on a background thread, and cached for the next binds
+        imageLoader.load(lesson.getImageUrl(), holder.roundedImage);
 
         //img_miss
 
@@ -191,7 +218,9 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
         // Handle checkbox click - prevent direct changes, show informative message
         holder.checkBox.setOnClickListener(v ->{
-            holder.checkBox.setChecked(lesson.getRegistered());
+            LessonCard current = getLessonAt(holder.getBindingAdapterPosition());
+            if (current == null) return;
+            holder.checkBox.setChecked(current.isRegistered());
             if (holder.checkBox.isChecked()){
                 Toast.makeText(context, "ניתן לבטל סימון רק מתוך השיעור עצמו", Toast.LENGTH_SHORT).show();
             }
@@ -201,33 +230,15 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
             }
         });
 
-        // Set current registration status
-        holder.checkBox.setChecked(lesson.getRegistered()); //the current
-
-        // Set change listener for programmatic updates
-        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            if (checkboxChangedListener != null) {
-                checkboxChangedListener.onCheckboxChanged(position, isChecked);
-            }
-        });
-
-        // Remove previous listener to prevent unwanted triggers
-        holder.fav_button.setOnCheckedChangeListener(null); //cancel previous listener
-
-        // Set current favorite status
-        holder.fav_button.setChecked(lesson.getFavorites()); //the current value
-
-        // Set new listener for favorite status changes
-        holder.fav_button.setOnCheckedChangeListener(((buttonView, isChecked) -> {
-            if (favoriteClickListener != null){
-                favoriteClickListener.onFavoriteClick(position, isChecked);
-            }
-        }));
+        bindRegistered(holder, lesson);
+        bindFavorite(holder, lesson);
 
         //Sets up click listener for lesson item to navigate to lesson details
         holder.itemView.setOnClickListener(v -> {
             Intent intent = new Intent(context, LessonDetailsActivity.class);
             intent.putExtra("lessonId", lesson.getId()); // Pass only lesson ID
+            // Ended by LessonDetailsActivity once the lesson is shown, measured by the macrobenchmark
+            Trace.beginAsyncSection(LessonDetailsActivity.TRACE_OPEN, (int) lesson.getId());
             context.startActivity(intent);
         });
 
@@ -244,21 +255,97 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
     }
 
     /**
-     * Returns the total number of items in the data set
-     * @return Size of lesson list, or 0 if list is null
+     * Binds only the parts of the card that changed, as reported by getChangePayload()
+     * A favorite or registration toggle updates its checkbox without touching the text or the image
+     * @param holder The ViewHolder to bind data to
+     * @param position The position of the item within the adapter's data set
+     * @param payloads Change flags of the item, empty for a full bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull LessonViewHolder holder, int position, @NonNull List<Object> payloads){
+        LessonCard lesson = getItem(position);
+        if (payloads.isEmpty() || lesson == null) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        int changes = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                // Not one of our flags (e.g. an item animator payload), bind the whole card
+                onBindViewHolder(holder, position);
+                return;
+            }
+            changes |= (Integer) payload;
+        }
+        if ((changes & PAYLOAD_REGISTERED) != 0) {
+            bindRegistered(holder, lesson);
+        }
+        if ((changes & PAYLOAD_FAVORITE) != 0) {
+            bindFavorite(holder, lesson);
+        }
+    }
+
+    /**
+     * Shows the registration status of the lesson on its checkbox
+     * @param holder The ViewHolder of the lesson card
+     * @param lesson The lesson shown in the card
+     */
+    private void bindRegistered(LessonViewHolder holder, LessonCard lesson){
+        // Remove previous listener so setting the current value doesn't report a change
+        holder.checkBox.setOnCheckedChangeListener(null);
+
+        // Set current registration status
+        holder.checkBox.setChecked(lesson.isRegistered()); //the current
+
+        // Set change listener for programmatic updates
+        holder.checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            int position = holder.getBindingAdapterPosition();
+            if (checkboxChangedListener != null && position != RecyclerView.NO_POSITION) {
+                checkboxChangedListener.onCheckboxChanged(position, isChecked);
+            }
+        });
+    }
+
+    /**
+     * Shows the favorite status of the lesson on its heart button
+     * @param holder The ViewHolder of the lesson card
+     * @param lesson The lesson shown in the card
+     */
+    private void bindFavorite(LessonViewHolder holder, LessonCard lesson){
+        // Remove previous listener to prevent unwanted triggers
+        holder.fav_button.setOnCheckedChangeListener(null); //cancel previous listener
+
+        // Set current favorite status
+        holder.fav_button.setChecked(lesson.isFavorites()); //the current value
+
+        // Set new listener for favorite status changes
+        // The position is read on click, because rows above may have been added or removed since the bind
+        holder.fav_button.setOnCheckedChangeListener(((buttonView, isChecked) -> {
+            int position = holder.getBindingAdapterPosition();
+            if (favoriteClickListener != null && position != RecyclerView.NO_POSITION){
+                favoriteClickListener.onFavoriteClick(position, isChecked);
+            }
+        }));
+    }
+
+    /**
+     * Stops loading the image of a card that scrolled off screen
+     * @param holder The ViewHolder being recycled
      */
     @Override
-    public int getItemCount() {
-        return lessonList == null ? 0 : lessonList.size();
+    public void onViewRecycled(@NonNull LessonViewHolder holder) {
+        super.onViewRecycled(holder);
+        imageLoader.cancel(holder.roundedImage);
     }
 
     /**
      * Gets lesson object at specific position
      * @param position Position in the lesson list
-     * @return Lesson object at the specified position
+     * @return Card of the lesson at the specified position, or null if its page is not loaded
      */
-    public Lesson getLessonAt(int position) {
-        return lessonList.get(position);
+    public LessonCard getLessonAt(int position) {
+        return peek(position);
     }
 
 }
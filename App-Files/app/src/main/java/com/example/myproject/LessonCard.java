@@ -0,0 +1,96 @@
+package com.example.myproject;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+
+//only the columns of a lesson that its card in the lessons list shows, with the flags of one user
+public class LessonCard {
+
+    //the columns of a card, selected FROM_LESSONS_OF_USER, in the order of the constructor
+    //lessons the user never touched have no state row, so they are neither done nor favorite
+    //the card shows the small image when the lesson has one, so the list never decodes an original
+    static final String COLUMNS = "id, title, COALESCE(thumbnailUrl, imageUrl) AS imageUrl, description, level, trainerName,"
+            + " COALESCE(state.isRegistered, 0) AS isRegistered, COALESCE(state.isFavorites, 0) AS isFavorites";
+
+    //the lessons joined with the state of the user in :userId
+    static final String FROM_LESSONS_OF_USER = " FROM lesson_table LEFT JOIN user_lesson_state AS state"
+            + " ON state.lessonId = lesson_table.id AND state.userId = :userId";
+
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    @NonNull
+    @ColumnInfo(name = "title")
+    private final String title;
+
+    @NonNull
+    @ColumnInfo(name = "imageUrl")
+    private final String imageUrl;
+
+    @NonNull
+    @ColumnInfo(name = "description")
+    private final String description;
+
+    @NonNull
+    @ColumnInfo(name = "level")
+    private final Level level;
+
+    @NonNull
+    @ColumnInfo(name = "trainerName")
+    private final String trainerName;
+
+    @ColumnInfo(name = "isRegistered")
+    private final boolean isRegistered;
+
+    @ColumnInfo(name = "isFavorites")
+    private final boolean isFavorites;
+
+    public LessonCard(long id, @NonNull String title, @NonNull String imageUrl, @NonNull String description,
+                      @NonNull Level level, @NonNull String trainerName, boolean isRegistered, boolean isFavorites) {
+        this.id = id;
+        this.title = title;
+        this.imageUrl = imageUrl;
+        this.description = description;
+        this.level = level;
+        this.trainerName = trainerName;
+        this.isRegistered = isRegistered;
+        this.isFavorites = isFavorites;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    @NonNull
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    @NonNull
+    public String getDescription() {
+        return description;
+    }
+
+    @NonNull
+    public Level getLevel() {
+        return level;
+    }
+
+    @NonNull
+    public String getTrainerName() {
+        return trainerName;
+    }
+
+    public boolean isRegistered() {
+        return isRegistered;
+    }
+
+    public boolean isFavorites() {
+        return isFavorites;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.myproject;
+
+import android.net.Uri;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the lesson catalog to and from a JSON file, for pushing large catalogs to devices
+ * Lessons are read and written one at a time, so memory use doesn't depend on the catalog size:
+ * export walks lesson_table in id order page by page, import inserts the parsed lessons in batches.
+ * The file format:
+ * <pre>
+ * {
+ *   "version": 2,
+ *   "lessons": [ {"title": ..., "imageUrl": ..., "description": ..., "videoUrl": ...,
+ *                 "textFileUrl": ..., "level": "BEGINNER", "trainerName": ...}, ... ],
+ *   "media": [ {"url": ..., "size": 1234}, ... ]
+ * }
+ * </pre>
+ * "media" lists every distinct image/video/text file the lessons reference; size is -1 when
+ * the file isn't stored on this device (e.g. raw resources). Files may be gzip compressed.
+ * Older catalogs also have "isRegistered"/"isFavorites" for each lesson, they are skipped -
+ * what a user marked stays on their device (user_lesson_state).
+ * The media list is read by lesson id like the lessons, only the urls already written are kept
+ * to leave out duplicates, so its memory grows with the number of distinct files, not of lessons.
+ * The methods block, call them off the main thread.
+ */
+public class LessonCatalogTransfer {
+
+    private static final String TAG = "CatalogTransfer";
+    private static final int FORMAT_VERSION = 2; // 2: level is the Level name instead of its Hebrew text
+    private static final int BATCH_SIZE = 500; // Lessons read from or written to the DB at once
+
+    private final LessonDao lessonDao;
+    private final DatabaseScheduler scheduler;
+
+    /**
+     * Counts of one import
+     */
+    public static class ImportResult {
+        public final int lessonsImported;
+        public final int mediaReferenced;
+        public final int mediaMissing; // Local files of the manifest that don't exist on this device
+
+        ImportResult(int lessonsImported, int mediaReferenced, int mediaMissing) {
+            this.lessonsImported = lessonsImported;
+            this.mediaReferenced = mediaReferenced;
+            this.mediaMissing = mediaMissing;
+        }
+    }
+
+    public LessonCatalogTransfer(LessonDao lessonDao, DatabaseScheduler scheduler) {
+        this.lessonDao = lessonDao;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Writes all lessons and their media manifest to the stream
+     * @param out Where to write the catalog, closed when done
+     * @param gzip Whether to compress the catalog
+     * @return Number of lessons written
+     */
+    public int exportCatalog(OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out) : new BufferedOutputStream(out);
+        int exported = 0;
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("version").value(FORMAT_VERSION);
+
+            writer.name("lessons").beginArray();
+            long lastId = 0;
+            List<Lesson> page;
+            while (!(page = lessonDao.getLessonsAfter(lastId, BATCH_SIZE)).isEmpty()) {
+                for (Lesson lesson : page) {
+                    writeLesson(writer, lesson);
+                }
+                exported += page.size();
+                lastId = page.get(page.size() - 1).getId();
+            }
+            writer.endArray();
+
+            writer.name("media").beginArray();
+            Set<String> written = new HashSet<>();
+            lastId = 0;
+            List<LessonMedia> media;
+            while (!(media = lessonDao.getMediaAfter(lastId, BATCH_SIZE)).isEmpty()) {
+                for (LessonMedia lessonMedia : media) {
+                    for (String url : lessonMedia.getSourceUrls()) {
+                        if (written.add(url)) {
+                            writer.beginObject();
+                            writer.name("url").value(url);
+                            writer.name("size").value(localFileSize(url));
+                            writer.endObject();
+                        }
+                    }
+                }
+                lastId = media.get(media.size() - 1).getId();
+            }
+            writer.endArray();
+
+            writer.endObject();
+        }
+        return exported;
+    }
+
+    /**
+     * Reads a catalog from the stream and inserts its lessons as new lessons
+     * Every batch is inserted in its own transaction on the write lane, so other writes
+     * of the app aren't blocked for the whole import.
+     * @param in The catalog, plain or gzip compressed, closed when done
+     * @return The counts of the import
+     */
+    public ImportResult importCatalog(InputStream in) throws IOException {
+        int imported = 0;
+        int mediaReferenced = 0;
+        int mediaMissing = 0;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(maybeGunzip(in), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("version")) {
+                    int version = reader.nextInt();
+                    if (version > FORMAT_VERSION) {
+                        throw new IOException("Unsupported catalog version " + version);
+                    }
+                } else if (name.equals("lessons")) {
+                    List<Lesson> batch = new ArrayList<>(BATCH_SIZE);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        batch.add(readLesson(reader));
+                        if (batch.size() == BATCH_SIZE) {
+                            imported += insertBatch(batch);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
+                    reader.endArray();
+                    imported += insertBatch(batch);
+                } else if (name.equals("media")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        mediaReferenced++;
+                        if (!readMediaEntryExists(reader)) {
+                            mediaMissing++;
+                        }
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue(); // Field of a newer format
+                }
+            }
+            reader.endObject();
+        }
+
+        if (mediaMissing > 0) {
+            Log.w(TAG, mediaMissing + " of " + mediaReferenced + " media files of the catalog are missing");
+        }
+        return new ImportResult(imported, mediaReferenced, mediaMissing);
+    }
+
+    private int insertBatch(List<Lesson> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            return scheduler.submitWrite(() -> lessonDao.insertAll(batch)).get().size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error inserting lessons", e.getCause());
+        }
+    }
+
+    private void writeLesson(JsonWriter writer, Lesson lesson) throws IOException {
+        writer.beginObject();
+        writer.name("title").value(lesson.getTitle());
+        writer.name("imageUrl").value(lesson.getImageUrl());
+        writer.name("description").value(lesson.getDescription());
+        writer.name("videoUrl").value(lesson.getVideoUrl());
+        writer.name("textFileUrl").value(lesson.getTextFileUrl());
+        writer.name("level").value(lesson.getLevel().name());
+        writer.name("trainerName").value(lesson.getTrainerName());
+        writer.endObject();
+    }
+
+    private Lesson readLesson(JsonReader reader) throws IOException {
+        String title = "";
+        String imageUrl = "";
+        String description = "";
+        String videoUrl = "";
+        String textFileUrl = "";
+        Level level = Level.BEGINNER;
+        String trainerName = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "title": title = reader.nextString(); break;
+                case "imageUrl": imageUrl = reader.nextString(); break;
+                case "description": description = reader.nextString(); break;
+                case "videoUrl": videoUrl = reader.nextString(); break;
+                case "textFileUrl": textFileUrl = reader.nextString(); break;
+                case "level": level = readLevel(reader.nextString()); break;
+                case "trainerName": trainerName = reader.nextString(); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+
+        return new Lesson(title, imageUrl, description, videoUrl, textFileUrl, level, trainerName);
+    }
+
+    /**
+     * Reads the level of a lesson, version 1 catalogs still have the Hebrew text of the level
+     * Unknown levels become beginners instead of failing the whole import
+     */
+    private static Level readLevel(String value) {
+        Level level = Level.parse(value);
+        if (level == null) {
+            Log.w(TAG, "Unknown lesson level " + value);
+            return Level.BEGINNER;
+        }
+        return level;
+    }
+
+    /**
+     * Reads one media manifest entry
+     * @return false if it is a local file that is not on this device
+     */
+    private boolean readMediaEntryExists(JsonReader reader) throws IOException {
+        String url = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("url") && reader.peek() == JsonToken.STRING) {
+                url = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return url == null || !url.startsWith("file://") || localFileSize(url) >= 0;
+    }
+
+    private static long localFileSize(String url) {
+        if (url.startsWith("file://")) {
+            String path = Uri.parse(url).getPath();
+            if (path != null) {
+                File file = new File(path);
+                if (file.exists()) {
+                    return file.length();
+                }
+            }
+        } else if (url.startsWith("/")) {
+            File file = new File(url);
+            if (file.exists()) {
+                return file.length();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Unwraps gzip compressed catalogs, found by the gzip magic bytes
+     */
+    private static InputStream maybeGunzip(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered);
+        }
+        return buffered;
+    }
+}
@@ -2,32 +2,96 @@ package com.example.myproject;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Database;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.List;
 
 @Dao
 public interface LessonDao {
+    //inserts a lesson, returns its new id
     @Insert
-    void insert(Lesson lesson);
+    long insert(Lesson lesson);
 
     @Query("SELECT * FROM lesson_table WHERE id = :id")
     LiveData<Lesson> getLessonById(long id);
 
+    //the lesson right away, for background code that can't observe LiveData
+    @Query("SELECT * FROM lesson_table WHERE id = :id")
+    Lesson getLessonByIdNow(long id);
+
+
+    //cards of the lessons of one level with the flags of the user, loaded page by page for the lessons list
+    @Query("SELECT " + LessonCard.COLUMNS + LessonCard.FROM_LESSONS_OF_USER + " WHERE level = :level ORDER BY id")
+    PagingSource<Integer, LessonCard> getCardsByLevel(long userId, Level level);
+
+    //lesson cards of a LessonQuery (filters, sort, limit) right away
+    @RawQuery(observedEntities = {Lesson.class, UserLessonState.class})
+    List<LessonCard> queryCards(SupportSQLiteQuery query);
+
+    //lesson cards of a LessonQuery, updated when lessons or the flags of a user change
+    @RawQuery(observedEntities = {Lesson.class, UserLessonState.class})
+    LiveData<List<LessonCard>> observeCards(SupportSQLiteQuery query);
+
+    //lesson cards of a LessonQuery, loaded page by page
+    @RawQuery(observedEntities = {Lesson.class, UserLessonState.class})
+    PagingSource<Integer, LessonCard> pageCards(SupportSQLiteQuery query);
+
+    //ranked lesson cards of a full-text search (LessonSearch.toSearchQuery), loaded page by page
+    @RawQuery(observedEntities = {Lesson.class, UserLessonState.class, LessonFts.class})
+    PagingSource<Integer, LessonCard> searchCards(SupportSQLiteQuery query);
+
+    //the next lessons after the given id whose text file isn't in the search index yet - new, changed,
+    //or from before the index. Paged by id, so a pass reads the table once however many are left
+    @Query("SELECT lesson_table.* FROM lesson_table LEFT JOIN lesson_fts ON lesson_fts.rowid = lesson_table.id"
+            + " WHERE lesson_table.id > :afterId AND lesson_fts.bodyUrl IS NOT lesson_table.textFileUrl"
+            + " ORDER BY lesson_table.id LIMIT :limit")
+    List<Lesson> getLessonsToIndex(long afterId, int limit);
+
+    @Query("DELETE FROM lesson_fts WHERE rowid = :lessonId")
+    void deleteSearchRow(long lessonId);
+
+    //copies the lesson into the index with its text, unless it was deleted or got another text file meanwhile
+    @Query("INSERT INTO lesson_fts(rowid, title, description, body, bodyUrl)"
+            + " SELECT id, title, description, :body, textFileUrl FROM lesson_table"
+            + " WHERE id = :lessonId AND textFileUrl = :textFileUrl")
+    void insertSearchRow(long lessonId, String textFileUrl, String body);
+
+    //puts the text of the lesson into the search index
+    @Transaction
+    default void indexLessonText(long lessonId, String textFileUrl, String body) {
+        deleteSearchRow(lessonId);
+        insertSearchRow(lessonId, textFileUrl, body);
+    }
+
+    //the next page of lessons after the given id, for reading the whole table in constant memory
+    @Query("SELECT * FROM lesson_table WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Lesson> getLessonsAfter(long afterId, int limit);
+
+    //the media files of the next page of lessons after the given id, a range scan of the primary key per page
+    //for the catalog export and the media store sweep
+    @Query("SELECT " + LessonMedia.COLUMNS + " FROM lesson_table WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<LessonMedia> getMediaAfter(long afterId, int limit);
 
-    @Query("SELECT * FROM lesson_table")
-    LiveData<List<Lesson>> getAllLessons();
+    //how many lessons use a media file, by its file:// url or its path - the file is deleted at 0
+    @Query("SELECT COUNT(*) FROM lesson_table WHERE imageUrl IN (:url, :path) OR videoUrl IN (:url, :path)"
+            + " OR textFileUrl IN (:url, :path) OR thumbnailUrl IN (:url, :path) OR detailImageUrl IN (:url, :path)"
+            + " OR posterUrl IN (:url, :path)")
+    int countMediaReferences(String url, String path);
 
     //deletes all lessons
-    @Query("DELETE FROM user_table")
+    @Query("DELETE FROM lesson_table")
     void deleteAll();
 
     //dell one lessons
@@ -36,4 +100,53 @@ public interface LessonDao {
 
     @Update
     void update(Lesson lesson);
+
+    //writes only the columns the trainer edits, the trainer name and the catalog flags stay as they are
+    @Query("UPDATE lesson_table SET title = :title, description = :description, imageUrl = :imageUrl,"
+            + " thumbnailUrl = :thumbnailUrl, detailImageUrl = :detailImageUrl,"
+            + " videoUrl = :videoUrl, posterUrl = :posterUrl, durationMs = :durationMs,"
+            + " textFileUrl = :textFileUrl, level = :level WHERE id = :id")
+    void updateContent(long id, String title, String description, String imageUrl, String thumbnailUrl,
+                       String detailImageUrl, String videoUrl, String posterUrl, Long durationMs,
+                       String textFileUrl, Level level);
+
+    //lessons whose video poster and duration weren't read yet (VideoPosterExtractor)
+    @Query("SELECT * FROM lesson_table WHERE durationMs IS NULL ORDER BY id LIMIT :limit")
+    List<Lesson> getLessonsWithoutPoster(int limit);
+
+    //saves what was read from the video, unless the lesson got another video meanwhile
+    @Query("UPDATE lesson_table SET posterUrl = :posterUrl, durationMs = :durationMs"
+            + " WHERE id = :id AND videoUrl = :videoUrl")
+    void setPoster(long id, String videoUrl, String posterUrl, long durationMs);
+
+    @Query("DELETE FROM lesson_table WHERE id = :id")
+    void deleteById(long id);
+
+    //SQLite limits the number of ? in one statement, so id lists are deleted in chunks of this size
+    int ID_CHUNK_SIZE = 500;
+
+    //inserts many lessons in one transaction, returns their new ids
+    @Insert
+    List<Long> insertAll(List<Lesson> lessons);
+
+    //updates many lessons in one transaction
+    @Update
+    int updateAll(List<Lesson> lessons);
+
+    //deletes many lessons in one transaction
+    @Delete
+    int deleteAll(List<Lesson> lessons);
+
+    @Query("DELETE FROM lesson_table WHERE id IN (:ids)")
+    int deleteByIdChunk(List<Long> ids);
+
+    //deletes lessons by their ids in one transaction, however many ids there are
+    @Transaction
+    default int deleteByIds(List<Long> ids) {
+        int deleted = 0;
+        for (int start = 0; start < ids.size(); start += ID_CHUNK_SIZE) {
+            deleted += deleteByIdChunk(ids.subList(start, Math.min(start + ID_CHUNK_SIZE, ids.size())));
+        }
+        return deleted;
+    }
 }
@@ -0,0 +1,191 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.DocumentsContract;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the description text file of a lesson on a background thread
+ * Texts are cached per lesson id and file modification time, so opening the lesson again
+ * (or a LiveData emission after the lesson was edited) doesn't read the file again.
+ * Large files are shown piece by piece while they are read instead of as one String.
+ * A load replaced by a newer one on the same view stops reading at its next chunk.
+ */
+public class LessonDescriptionLoader {
+
+    private static final String TAG = "DescriptionLoader";
+    private static final String ERROR_TEXT = "שגיאה בטעינת הקובץ";
+    private static final int CHUNK_CHARS = 8 * 1024; // Characters read and shown at once
+    private static final int MAX_CACHED_CHARS = 64 * 1024; // Longer texts are streamed and not cached
+    private static final int CACHE_CHARS = 512 * 1024; // Total characters kept in the cache
+
+    private static volatile LessonDescriptionLoader INSTANCE;
+
+    private final Context appContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //the current load of every view, read by the background thread between chunks
+    private final Map<TextView, Object> currentLoads = Collections.synchronizedMap(new WeakHashMap<>());
+    private final LruCache<Long, CachedText> cache = new LruCache<Long, CachedText>(CACHE_CHARS) {
+        @Override
+        protected int sizeOf(Long lessonId, CachedText cached) {
+            return cached.text.length();
+        }
+    };
+
+    /**
+     * A text read from the description file, with the version of the file it was read from
+     */
+    private static class CachedText {
+        final String textUrl;
+        final long lastModified;
+        final String text;
+
+        CachedText(String textUrl, long lastModified, String text) {
+            this.textUrl = textUrl;
+            this.lastModified = lastModified;
+            this.text = text;
+        }
+    }
+
+    private LessonDescriptionLoader(Context context) {
+        appContext = context.getApplicationContext();
+    }
+
+    //if its null, create the loader
+    public static LessonDescriptionLoader getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LessonDescriptionLoader.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new LessonDescriptionLoader(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Shows the description of the lesson in the TextView
+     * Must be called on the main thread. A newer load on the same view replaces this one.
+     * @param lessonId Id of the lesson, used as the cache key
+     * @param textUrl The stored text file of the lesson - android.resource, content or file URI
+     * @param textView The view to show the text in
+     */
+    public void load(long lessonId, String textUrl, TextView textView) {
+        // Marks the current load of the view, an older load stops and its late chunks are ignored
+        Object token = new Object();
+        currentLoads.put(textView, token);
+
+        executor.execute(() -> {
+            if (!isCurrent(textView, token)) {
+                return; // Replaced while it waited for the thread
+            }
+            Uri uri = Uri.parse(textUrl);
+            long lastModified = getLastModified(uri);
+
+            CachedText cached = cache.get(lessonId);
+            if (cached != null && cached.textUrl.equals(textUrl) && cached.lastModified == lastModified) {
+                post(textView, token, () -> textView.setText(cached.text));
+                return;
+            }
+
+            try (InputStream inputStream = appContext.getContentResolver().openInputStream(uri);
+                 Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                StringBuilder sb = new StringBuilder();
+                char[] buffer = new char[CHUNK_CHARS];
+                boolean streaming = false;
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    if (!isCurrent(textView, token)) {
+                        return; // The view shows another lesson now, don't read the rest of this file
+                    }
+                    sb.append(buffer, 0, read);
+                    if (!streaming && sb.length() <= MAX_CACHED_CHARS) {
+                        continue; // Still small enough to show and cache in one piece
+                    }
+
+                    // Large file - show what was read so far and keep appending
+                    String chunk = sb.toString();
+                    sb.setLength(0);
+                    boolean first = !streaming;
+                    streaming = true;
+                    post(textView, token, () -> {
+                        if (first) {
+                            textView.setText(chunk);
+                        } else {
+                            textView.append(chunk);
+                        }
+                    });
+                }
+
+                if (!streaming) { // Every chunk of a streamed file was already shown
+                    String text = sb.toString();
+                    cache.put(lessonId, new CachedText(textUrl, lastModified, text));
+                    post(textView, token, () -> textView.setText(text));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error reading description " + textUrl + ": " + e.getMessage());
+                post(textView, token, () -> textView.setText(ERROR_TEXT));
+            }
+        });
+    }
+
+    /**
+     * Runs the update on the main thread if the view still waits for this load
+     */
+    private void post(TextView textView, Object token, Runnable update) {
+        mainHandler.post(() -> {
+            if (isCurrent(textView, token)) {
+                update.run();
+            }
+        });
+    }
+
+    private boolean isCurrent(TextView textView, Object token) {
+        return currentLoads.get(textView) == token;
+    }
+
+    /**
+     * Gets the version of the text file, so an edited file is read again
+     * Raw resources only change with the app itself, so the install time is used for them
+     */
+    private long getLastModified(Uri uri) {
+        String scheme = uri.getScheme();
+        try {
+            if ("file".equals(scheme) && uri.getPath() != null) {
+                return new File(uri.getPath()).lastModified();
+            }
+            if ("content".equals(scheme)) {
+                try (Cursor cursor = appContext.getContentResolver().query(uri,
+                        new String[]{DocumentsContract.Document.COLUMN_LAST_MODIFIED}, null, null, null)) {
+                    if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                        return cursor.getLong(0);
+                    }
+                }
+                return 0;
+            }
+            return appContext.getPackageManager()
+                    .getPackageInfo(appContext.getPackageName(), 0).lastUpdateTime;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading modification time of " + uri + ": " + e.getMessage());
+            return 0;
+        }
+    }
+}
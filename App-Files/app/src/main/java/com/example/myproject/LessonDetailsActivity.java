@@ -3,37 +3,59 @@ package com.example.myproject;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.Trace;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.ImageButton;
-import android.widget.MediaController;
+import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
-import android.widget.VideoView;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
-
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import androidx.media3.common.Player;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.ui.PlayerView;
 
 public class LessonDetailsActivity extends AppCompatActivity {
     private LessonViewModel lessonViewModel;
     private Lesson currentLesson;
+    private long userId; // The logged in user, the favorite and done flags are per user
+    private boolean isRegistered; // Whether the user marked this lesson as done
 
     private TextView tvLessonTitle, tvTrainerName, tvDescription, tvRegister, tvBigLessonTitle;
-    private VideoView videoView;
+    private PlayerView playerView;
+    private ImageView posterView, posterPlay; // Poster frame shown until the video plays
+    private TextView tvDuration;
     private Button btnRegister;
     private ImageButton btnBack;
     private CheckBox fav_button;
-    private MediaController mediaController;
 
-    // Flag to track if activity is active (prevents window leaks)
-    private boolean isActivityActive = true;
+    // The lesson video is played by the shared players of the app, this screen holds one only while it is started
+    private LessonPlaybackEngine playbackEngine;
+    private ExoPlayer player;
+    private Uri videoUri;
+    private boolean playbackStarted; // The video was played, so it is loaded again when the screen comes back
+
+    // Hides the poster once the video draws its first frame, so there is no black flash
+    private final Player.Listener firstFrameListener = new Player.Listener() {
+        @Override
+        public void onRenderedFirstFrame() {
+            posterView.setVisibility(View.GONE);
+            tvDuration.setVisibility(View.GONE);
+        }
+    };
+
+    // Text file shown in the description, so it isn't read again on every emission
+    private String loadedTextUrl;
+
+    // Video loaded into the player, so the player isn't set up again on every emission
+    private String loadedVideoUrl;
+
+    // Trace section from the click on a lesson card until the lesson is shown here
+    static final String TRACE_OPEN = "LessonDetailsOpen";
+    private boolean openTraced = false;
 
 
     @Override
@@ -50,7 +72,11 @@ public class LessonDetailsActivity extends AppCompatActivity {
         // Initialize UI components
         tvLessonTitle = findViewById(R.id.tvLessonTitle); //lesson title
         tvBigLessonTitle = findViewById(R.id.tvBigLessonTitle); //lesson title
-        videoView = findViewById(R.id.videoView); //the video
+        playerView = findViewById(R.id.playerView); //the video
+        playbackEngine = ((MoveItApplication) getApplication()).getPlaybackEngine();
+        posterView = findViewById(R.id.posterView); //frame of the video until it plays
+        posterPlay = findViewById(R.id.posterPlay);
+        tvDuration = findViewById(R.id.tvDuration);
         btnRegister = findViewById(R.id.btnRegister); //the register to lesson class
         tvRegister = findViewById(R.id.tvRegister); //text that we register to the lesson
         btnBack = findViewById(R.id.btnBack); //back to lessons
@@ -71,133 +97,142 @@ public class LessonDetailsActivity extends AppCompatActivity {
 
         // Initialize ViewModel
         lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        userId = getSharedPreferences("my_prefs", MODE_PRIVATE).getLong("userId", -1);
 
-        // Observe lesson data by ID
-        lessonViewModel.getLessonById(lessonId).observe(this, lesson ->{
-            currentLesson = lesson;
+        // Observe the favorite and done flags of the user, every toggle writes only its own flag
+        lessonViewModel.getLessonState(userId, lessonId).observe(this, state -> {
+            // No row yet means the user never marked anything in this lesson
+            boolean isFavorite = state != null && state.isFavorites();
+            showRegistered(state != null && state.isRegistered());
 
-            // Setup favorite button
             // Remove listener temporarily to prevent triggering during setup
             fav_button.setOnCheckedChangeListener(null);
-                fav_button.setChecked(currentLesson.getFavorites());
-            // Set listener to update favorite status
-                fav_button.setOnCheckedChangeListener(((buttonView, isChecked) -> {
-                    currentLesson.setFavorites(isChecked);
-                }));
+            fav_button.setChecked(isFavorite);
+            fav_button.setOnCheckedChangeListener((buttonView, isChecked) ->
+                    lessonViewModel.setFavorite(userId, lessonId, isChecked));
+        });
+
+        // Setup register button click listener
+        btnRegister.setOnClickListener(v ->{
+            // Toggle registration status
+            boolean isRegisterLesson = !isRegistered;
+            lessonViewModel.setRegistered(userId, lessonId, isRegisterLesson);
 
+            // Show toast message
+            Toast.makeText(this,
+                    isRegisterLesson ? "שיעור נרשם כבוצע" : "בוטל ביצוע שיעור",
+                    Toast.LENGTH_SHORT).show();
+
+            // Update right away, the state observer confirms it once it is saved
+            showRegistered(isRegisterLesson);
+        });
+
+        // Observe lesson data by ID
+        lessonViewModel.getLessonById(lessonId).observe(this, lesson ->{
+            currentLesson = lesson;
 
              // Set lesson information in UI
                 tvLessonTitle.setText(currentLesson.getTitle()); //match the name of the lesson
                 tvTrainerName.setText(currentLesson.getTrainerName()); //match the trainer name of the lesson
                 tvBigLessonTitle.setText(currentLesson.getTitle()); //match the name of the lesson
 
-            // Update register button text based on current status
-                updateButtonText(btnRegister, currentLesson.getRegistered());
-
-            // Hide register confirmation text if lesson is not registered
-                if (currentLesson.getRegistered()==false){
-                    tvRegister.setVisibility(View.GONE);
-                }
-
-            // Setup register button click listener
-                btnRegister.setOnClickListener(v ->{
-                    // Toggle registration status
-                    boolean isRegisterLesson = !currentLesson.getRegistered();
-                    currentLesson.setRegistered(isRegisterLesson);
-
-
-                    // Show toast message
-                    Toast.makeText(this,
-                            isRegisterLesson ? "שיעור נרשם כבוצע" : "בוטל ביצוע שיעור",
-                            Toast.LENGTH_SHORT).show();
-
-                    // Update button text
-                    updateButtonText(btnRegister, isRegisterLesson); //update the btn txt
-
-                    // Show/hide registration confirmation text
-                    if (isRegisterLesson) {
-                        tvRegister.setVisibility(View.VISIBLE);
-                    } else {
-                        tvRegister.setVisibility(View.GONE);
-                    }
-                });
-
-                // Load and display text file content
+                // Load and display text file content in the background
+                // Only when the text file changed, not on every emission (e.g. after a title edit)
                 String textUrl = currentLesson.getTextFileUrl();
-                if (textUrl.startsWith("content://") || textUrl.startsWith("file://")){
-                    // Load file from phone storage (user-uploaded content)
-                    Uri textUri = Uri.parse(textUrl);
-                    String text = readTextFromUri(textUri);
-                    tvDescription.setText(text);
+                if (!textUrl.equals(loadedTextUrl)) {
+                    loadedTextUrl = textUrl;
+                    LessonDescriptionLoader.getInstance(this).load(currentLesson.getId(), textUrl, tvDescription);
                 }
-                else {
-                    // Load text from raw resources (pre-built content)
-                    Uri textUri = Uri.parse(currentLesson.getTextFileUrl());
-                    int resId = Integer.parseInt(textUri.getLastPathSegment());
-                    String text = readRawTextFile(resId);
-                    tvDescription.setText(text);
+
+                if (!openTraced) { // Only the first emission is part of opening the screen
+                    openTraced = true;
+                    Trace.endAsyncSection(TRACE_OPEN, (int) lessonId);
                 }
 
-            // Load and setup video playback
+            // Load and setup video playback, only when the video changed
             String videoUrl = currentLesson.getVideoUrl();
-            if (videoUrl.startsWith("content://")) {
-                // Content URI from device storage
-                Uri videoUri = Uri.parse(videoUrl);
-                videoView.setVideoURI(videoUri);
-            } else if (videoUrl.startsWith("file://")) {
-                // File URI from internal storage - extract path and use setVideoPath
-                String filePath = Uri.parse(videoUrl).getPath();
-                if (filePath != null && new File(filePath).exists()) {
-                    videoView.setVideoPath(filePath);
-                } else {
-                    Log.e("LessonDetails", "Video file not found: " + filePath);
-                }
-            } else if (videoUrl.startsWith("/")) {
-                // Direct file path from internal storage
-                if (new File(videoUrl).exists()) {
-                    videoView.setVideoPath(videoUrl);
-                } else {
-                    Log.e("LessonDetails", "Video file not found: " + videoUrl);
-                }
-            } else {
-                // Load video from raw resources (pre-built content)
-                Uri uri = Uri.parse(currentLesson.getVideoUrl());
-                Log.d("LessonDetails", "Video URI: " + uri.toString());
-                videoView.setVideoURI(uri);
+            if (videoUrl.equals(loadedVideoUrl)) {
+                return;
             }
+            loadedVideoUrl = videoUrl;
 
-            // Setup media controller for video playback
-            mediaController = new MediaController(this);
-            mediaController.setAnchorView(videoView);
-            videoView.setMediaController(mediaController);
-
-            // Setup video prepared listener to show controls when ready
-            videoView.setOnPreparedListener(mp -> {
-                // Multiple checks to prevent window leaks
-                if (isActivityActive && mediaController != null && !isFinishing() && !isDestroyed()) {
-                    try {
-                        mediaController.show();
-                    } catch (Exception e) {
-                        Log.e("LessonDetails", "Error showing media controller: " + e.getMessage());
-                    }
-                }
-            });
+            videoUri = ResourceRegistry.getVideoUri(this, videoUrl);
+            releasePlayer(); // The lesson got another video
 
-            // Start video playback if activity is still active
-            if (isActivityActive && !isFinishing()) {
-                videoView.start();
+            // With a poster the player waits for a tap, otherwise the video starts right away
+            if (!showPoster(currentLesson)) {
+                startPlayback(true);
             }
             });
 
 
 
-        // Setup back button to save changes and close activity
-        btnBack.setOnClickListener(v->{
-            lessonViewModel.update(currentLesson);
-            finish();
+        // Setup back button to close activity, the flags were already saved when they changed
+        btnBack.setOnClickListener(v -> finish());
+
+
+    }
+
+    /**
+     * Shows the poster frame and duration of the lesson video, playing it when tapped
+     * @return false when the lesson has no poster, the video should start right away then
+     */
+    private boolean showPoster(Lesson lesson) {
+        String posterUrl = lesson.getPosterUrl();
+        if (posterUrl == null) {
+            posterView.setVisibility(View.GONE);
+            posterPlay.setVisibility(View.GONE);
+            tvDuration.setVisibility(View.GONE);
+            return false;
+        }
+        posterView.setImageURI(Uri.parse(posterUrl));
+        posterView.setVisibility(View.VISIBLE);
+        posterPlay.setVisibility(View.VISIBLE);
+        Long durationMs = lesson.getDurationMs();
+        if (durationMs != null && durationMs > 0) {
+            long seconds = durationMs / 1000;
+            tvDuration.setText(getString(R.string.video_duration, (int) (seconds / 60), (int) (seconds % 60)));
+            tvDuration.setVisibility(View.VISIBLE);
+        }
+        posterView.setOnClickListener(v -> {
+            posterView.setOnClickListener(null);
+            posterPlay.setVisibility(View.GONE);
+            startPlayback(true); // The poster stays over the video until its first frame is drawn
         });
+        return true;
+    }
 
+    /**
+     * Takes a player of the app and loads the lesson video where it stopped last time
+     * @param playWhenReady Play once loaded, or wait paused with the controls
+     */
+    private void startPlayback(boolean playWhenReady) {
+        playbackStarted = true;
+        player = playbackEngine.acquire(this, currentLesson.getId(), videoUri, playWhenReady);
+        player.addListener(firstFrameListener);
+        playerView.setPlayer(player);
+    }
+
+    /**
+     * Gives the player back to the app, which saves the position of the lesson
+     */
+    private void releasePlayer() {
+        if (player != null) {
+            player.removeListener(firstFrameListener);
+            playerView.setPlayer(null);
+            playbackEngine.release(this, currentLesson.getId(), player);
+            player = null;
+        }
+    }
 
+    /**
+     * Shows whether the user marked the lesson as done on the button and the confirmation text
+     * @param registered Current registration status
+     */
+    private void showRegistered(boolean registered) {
+        isRegistered = registered;
+        updateButtonText(btnRegister, registered);
+        tvRegister.setVisibility(registered ? View.VISIBLE : View.GONE);
     }
 
     /**
@@ -214,123 +249,18 @@ public class LessonDetailsActivity extends AppCompatActivity {
     }
 
     @Override
-    protected void onPause() {
-        super.onPause();
-        // Mark activity as inactive to prevent operations
-        isActivityActive = false; // הוסף את השורה הזו
-
-        // Pause video playback
-        if (videoView != null) {
-            videoView.pause();
-        }
-
-        // Hide media controller safely
-        if (mediaController != null) {
-            try {
-                mediaController.hide();
-            } catch (Exception e) {
-                Log.e("LessonDetails", "Error hiding media controller in onPause: " + e.getMessage());
-            }
+    protected void onStart() {
+        super.onStart();
+        // Coming back to a video that was played - load it again paused, where it stopped
+        if (playbackStarted && player == null && videoUri != null) {
+            startPlayback(false);
         }
     }
 
-    @Override
-    protected void onDestroy() {
-        // Mark activity as inactive
-        isActivityActive = false;
-
-        // Clean up media controller first
-        if (mediaController != null) {
-            try {
-                mediaController.hide();
-                mediaController = null; // Prevent memory leaks
-            } catch (Exception e) {
-                Log.e("LessonDetails", "Error in mediaController cleanup: " + e.getMessage());
-            }
-        }
-
-        // Clean up video view
-        if (videoView != null) {
-            try {
-                videoView.stopPlayback();
-                videoView.setVideoURI(null); // Clear URI to release resources
-                videoView = null; // Prevent memory leaks
-            } catch (Exception e) {
-                Log.e("LessonDetails", "Error in videoView cleanup: " + e.getMessage());
-            }
-        }
-
-        super.onDestroy();
-    }
-
     @Override
     protected void onStop() {
+        // Another screen can use the player while this one isn't visible
+        releasePlayer();
         super.onStop();
-        // Mark activity as inactive when not visible
-        isActivityActive = false;
-
-        // Hide media controller when activity stops
-        if (mediaController != null) {
-            try {
-                mediaController.hide();
-            } catch (Exception e) {
-                Log.e("LessonDetails", "Error hiding media controller in onStop: " + e.getMessage());
-            }
-        }
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Mark activity as active when resumed
-        isActivityActive = true;
-    }
-
-    /**
-     * Reads text content from raw resource file
-     * @param resId Resource ID of the text file
-     * @return String content of the file or error message
-     */
-    private String readRawTextFile(int resId) {
-        InputStream inputStream = null;
-        try {
-            inputStream = getResources().openRawResource(resId);
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, "UTF-8");
-            BufferedReader reader = new BufferedReader(inputStreamReader);
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append('\n');
-            }
-            reader.close();
-            return sb.toString();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "שגיאה בטעינת הקובץ";
-        } finally {
-            if (inputStream != null) {
-                try { inputStream.close(); } catch (Exception ignored) {}
-            }
-        }
-    }
-
-    /**
-     * Reads text content from URI (user-uploaded files)
-     * @param uri URI of the text file
-     * @return String content of the file or error message
-     */
-    private String readTextFromUri(Uri uri) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (InputStream inputStream = getContentResolver().openInputStream(uri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line).append('\n');
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "שגיאה בטעינת הקובץ";
-        }
-        return stringBuilder.toString();
     }
 }
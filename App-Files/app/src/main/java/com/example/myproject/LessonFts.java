@@ -0,0 +1,90 @@
+package com.example.myproject;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+//full-text search index of the lessons, one row per lesson with the same rowid as the lesson id
+//title and description are copied by triggers on lesson_table, body is the text file read by LessonSearchIndexer
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61, notIndexed = {"bodyUrl"})
+@Entity(tableName = "lesson_fts")
+public class LessonFts {
+
+    //same as Room creates it for this entity, for the migration
+    static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS `lesson_fts` USING FTS4("
+            + "`title` TEXT NOT NULL, `description` TEXT NOT NULL, `body` TEXT NOT NULL, `bodyUrl` TEXT, "
+            + "tokenize=unicode61, notindexed=`bodyUrl`)";
+
+    //keep title and description in sync with lesson_table, a new lesson waits for its body (bodyUrl NULL)
+    static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS lesson_fts_insert AFTER INSERT ON lesson_table BEGIN"
+                    + " INSERT INTO lesson_fts(rowid, title, description, body, bodyUrl)"
+                    + " VALUES (new.id, new.title, new.description, '', NULL); END",
+            //favorite/registration updates don't touch the index
+            "CREATE TRIGGER IF NOT EXISTS lesson_fts_update AFTER UPDATE OF title, description ON lesson_table"
+                    + " WHEN old.title IS NOT new.title OR old.description IS NOT new.description BEGIN"
+                    + " UPDATE lesson_fts SET title = new.title, description = new.description"
+                    + " WHERE rowid = new.id; END",
+            "CREATE TRIGGER IF NOT EXISTS lesson_fts_delete AFTER DELETE ON lesson_table BEGIN"
+                    + " DELETE FROM lesson_fts WHERE rowid = old.id; END"
+    };
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private final long rowid;
+
+    @NonNull
+    @ColumnInfo(name = "title")
+    private final String title;
+
+    @NonNull
+    @ColumnInfo(name = "description")
+    private final String description;
+
+    //contents of the lesson text file
+    @NonNull
+    @ColumnInfo(name = "body")
+    private final String body;
+
+    //the text file the body was read from, not searched - null until it was read
+    @Nullable
+    @ColumnInfo(name = "bodyUrl")
+    private final String bodyUrl;
+
+    public LessonFts(long rowid, @NonNull String title, @NonNull String description, @NonNull String body,
+                     @Nullable String bodyUrl) {
+        this.rowid = rowid;
+        this.title = title;
+        this.description = description;
+        this.body = body;
+        this.bodyUrl = bodyUrl;
+    }
+
+    public long getRowid() {
+        return rowid;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    @NonNull
+    public String getDescription() {
+        return description;
+    }
+
+    @NonNull
+    public String getBody() {
+        return body;
+    }
+
+    @Nullable
+    public String getBodyUrl() {
+        return bodyUrl;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.myproject;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.Size;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads lesson card images off the main thread
+ * Images are decoded at the size of the ImageView instead of their full resolution,
+ * kept in a memory cache sized from the device memory class, and saved as small
+ * thumbnails under getCacheDir() so the next app start doesn't decode the originals again.
+ * The saved thumbnails are kept under MAX_DISK_BYTES, the least recently shown are deleted first.
+ */
+public class LessonImageLoader {
+
+    private static final String TAG = "LessonImageLoader";
+    private static final String THUMBNAIL_DIR = "lesson_thumbnails"; // Folder of the thumbnails inside the cache dir
+    private static final int DECODE_THREADS = 2; // Decodes running in parallel while scrolling
+    private static final int THUMBNAIL_QUALITY = 85; // WebP quality of the saved thumbnails
+    private static final long MAX_DISK_BYTES = 20L * 1024 * 1024; // Thousands of card thumbnails
+    private static final long TRIMMED_DISK_BYTES = MAX_DISK_BYTES * 3 / 4; // Left after a trim, so it doesn't run on every save
+
+    private static volatile LessonImageLoader INSTANCE;
+
+    private final Context appContext;
+    private final LruCache<String, Bitmap> memoryCache; // Decoded thumbnails, bounded by bytes
+    private final File thumbnailDir;
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<ImageView, Future<?>> pendingLoads = new WeakHashMap<>(); // Only touched on the main thread
+    private final AtomicLong diskBytes = new AtomicLong(); // Size of the saved thumbnails, counted by trimDiskCache
+
+    private LessonImageLoader(Context context) {
+        appContext = context.getApplicationContext();
+
+        // Use 1/8 of the memory the system gives the app for the thumbnails
+        ActivityManager activityManager = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+        int cacheBytes = activityManager.getMemoryClass() * 1024 * 1024 / 8;
+        memoryCache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+
+        thumbnailDir = new File(appContext.getCacheDir(), THUMBNAIL_DIR);
+        if (!thumbnailDir.exists() && !thumbnailDir.mkdirs()) {
+            Log.e(TAG, "Could not create thumbnail dir: " + thumbnailDir);
+        }
+        decodeExecutor.execute(this::trimDiskCache); // Counts what earlier runs saved
+    }
+
+    //if its null, create the loader
+    public static LessonImageLoader getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LessonImageLoader.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new LessonImageLoader(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Shows the lesson image in the view, from memory if possible, otherwise decodes it in the background
+     * Must be called on the main thread
+     * @param imageUrl The stored image of the lesson - a drawable name or a content/file URI
+     * @param imageView The view to show the image in
+     */
+    public void load(String imageUrl, ImageView imageView) {
+        cancel(imageView);
+
+        Size targetSize = getTargetSize(imageView);
+        String key = imageUrl + "@" + targetSize.getWidth() + "x" + targetSize.getHeight();
+        imageView.setTag(key);
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+
+        // Clear the image of the recycled row until the new one is ready
+        imageView.setImageDrawable(null);
+
+        Future<?> future = decodeExecutor.submit(() -> {
+            Bitmap bitmap = loadThumbnail(key, imageUrl, targetSize);
+            if (bitmap == null) {
+                return;
+            }
+            memoryCache.put(key, bitmap);
+            mainHandler.post(() -> {
+                // The row may have been bound to another lesson while decoding
+                if (key.equals(imageView.getTag())) {
+                    pendingLoads.remove(imageView);
+                    imageView.setImageBitmap(bitmap);
+                }
+            });
+        });
+        pendingLoads.put(imageView, future);
+    }
+
+    /**
+     * Stops the pending load of a view, used when its row is recycled
+     * @param imageView The view whose load should be cancelled
+     */
+    public void cancel(ImageView imageView) {
+        Future<?> pending = pendingLoads.remove(imageView);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        imageView.setTag(null);
+    }
+
+    /**
+     * Gets the thumbnail from the disk cache, or decodes the original and saves its thumbnail
+     * Runs on the decode threads
+     */
+    private Bitmap loadThumbnail(String key, String imageUrl, Size targetSize) {
+        File thumbnailFile = new File(thumbnailDir, hashKey(key) + ".webp");
+        if (thumbnailFile.exists()) {
+            Bitmap bitmap = BitmapFactory.decodeFile(thumbnailFile.getAbsolutePath());
+            if (bitmap != null) {
+                thumbnailFile.setLastModified(System.currentTimeMillis()); // Shown again, trimmed last
+                return bitmap;
+            }
+        }
+
+        Bitmap bitmap = decodeDownsampled(imageUrl, targetSize);
+        if (bitmap != null) {
+            saveThumbnail(bitmap, thumbnailFile);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decodes the original image straight to about the size of the view
+     */
+    private Bitmap decodeDownsampled(String imageUrl, Size targetSize) {
+        try {
+            ImageDecoder.Source source;
+            if (imageUrl.startsWith("content://") || imageUrl.startsWith("file://")) {
+                // User-uploaded image from device storage
+                source = ImageDecoder.createSource(appContext.getContentResolver(), Uri.parse(imageUrl));
+            } else {
+                // Raw resource image from app drawable folder
+                int imageResId = ResourceRegistry.getDrawableId(appContext, imageUrl);
+                if (imageResId == 0) {
+                    return null;
+                }
+                source = ImageDecoder.createSource(appContext.getResources(), imageResId);
+            }
+
+            return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+                // Software bitmap so the thumbnail can also be written to the disk cache
+                decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+
+                // Scale so the image still covers the view (the view crops it to a circle)
+                Size size = info.getSize();
+                float scale = Math.max(
+                        (float) targetSize.getWidth() / size.getWidth(),
+                        (float) targetSize.getHeight() / size.getHeight());
+                if (scale < 1f) {
+                    decoder.setTargetSize(
+                            Math.max(1, Math.round(size.getWidth() * scale)),
+                            Math.max(1, Math.round(size.getHeight() * scale)));
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error decoding image " + imageUrl + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveThumbnail(Bitmap bitmap, File thumbnailFile) {
+        File tempFile = new File(thumbnailDir, thumbnailFile.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tempFile)) {
+            bitmap.compress(Bitmap.CompressFormat.WEBP_LOSSY, THUMBNAIL_QUALITY, out);
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving thumbnail: " + e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        // Rename at the end so a half written thumbnail is never read
+        if (!tempFile.renameTo(thumbnailFile)) {
+            tempFile.delete();
+            return;
+        }
+        if (diskBytes.addAndGet(thumbnailFile.length()) > MAX_DISK_BYTES) {
+            trimDiskCache();
+        }
+    }
+
+    /**
+     * Deletes the least recently shown thumbnails until the disk cache is under TRIMMED_DISK_BYTES
+     * Runs on the decode threads
+     */
+    private synchronized void trimDiskCache() {
+        File[] files = thumbnailDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total > MAX_DISK_BYTES) {
+            // lastModified is read once per file, it may change while sorting
+            long[] lastModified = new long[files.length];
+            Integer[] order = new Integer[files.length];
+            for (int i = 0; i < files.length; i++) {
+                lastModified[i] = files[i].lastModified();
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(lastModified[a], lastModified[b]));
+            for (int i = 0; i < order.length && total > TRIMMED_DISK_BYTES; i++) {
+                File file = files[order[i]];
+                long length = file.length();
+                if (file.delete()) {
+                    total -= length;
+                }
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    /**
+     * Gets the size the image is shown in, from the layout when the view wasn't measured yet
+     */
+    private Size getTargetSize(ImageView imageView) {
+        int width = imageView.getWidth();
+        int height = imageView.getHeight();
+        ViewGroup.LayoutParams params = imageView.getLayoutParams();
+        if (width <= 0 && params != null) {
+            width = params.width;
+        }
+        if (height <= 0 && params != null) {
+            height = params.height;
+        }
+        // wrap/match parent before layout - fall back to a card sized square
+        int fallback = Math.round(48 * imageView.getResources().getDisplayMetrics().density);
+        return new Size(width > 0 ? width : fallback, height > 0 ? height : fallback);
+    }
+
+    private static String hashKey(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
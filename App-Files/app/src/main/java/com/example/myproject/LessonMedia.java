@@ -0,0 +1,95 @@
+package com.example.myproject;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+
+//the media file columns of a lesson, read page by page by id when every lesson's files are needed
+public class LessonMedia {
+
+    //the columns of LessonMedia, in the order of the constructor
+    static final String COLUMNS = "id, imageUrl, videoUrl, textFileUrl, thumbnailUrl, detailImageUrl, posterUrl";
+
+    @ColumnInfo(name = "id")
+    private final long id;
+
+    @NonNull
+    @ColumnInfo(name = "imageUrl")
+    private final String imageUrl;
+
+    @NonNull
+    @ColumnInfo(name = "videoUrl")
+    private final String videoUrl;
+
+    @NonNull
+    @ColumnInfo(name = "textFileUrl")
+    private final String textFileUrl;
+
+    //the files made from the ones above on this device, null when there are none
+    @Nullable
+    @ColumnInfo(name = "thumbnailUrl")
+    private final String thumbnailUrl;
+
+    @Nullable
+    @ColumnInfo(name = "detailImageUrl")
+    private final String detailImageUrl;
+
+    @Nullable
+    @ColumnInfo(name = "posterUrl")
+    private final String posterUrl;
+
+    public LessonMedia(long id, @NonNull String imageUrl, @NonNull String videoUrl, @NonNull String textFileUrl,
+                       @Nullable String thumbnailUrl, @Nullable String detailImageUrl, @Nullable String posterUrl) {
+        this.id = id;
+        this.imageUrl = imageUrl;
+        this.videoUrl = videoUrl;
+        this.textFileUrl = textFileUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.detailImageUrl = detailImageUrl;
+        this.posterUrl = posterUrl;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @NonNull
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    @NonNull
+    public String getVideoUrl() {
+        return videoUrl;
+    }
+
+    @NonNull
+    public String getTextFileUrl() {
+        return textFileUrl;
+    }
+
+    @Nullable
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    @Nullable
+    public String getDetailImageUrl() {
+        return detailImageUrl;
+    }
+
+    @Nullable
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    //the files of a catalog lesson: the image, video and text the trainer picked
+    public String[] getSourceUrls() {
+        return new String[]{imageUrl, videoUrl, textFileUrl};
+    }
+
+    //every file the lesson uses, also the transcoded images and the poster - some may be null
+    public String[] getAllUrls() {
+        return new String[]{imageUrl, videoUrl, textFileUrl, thumbnailUrl, detailImageUrl, posterUrl};
+    }
+}
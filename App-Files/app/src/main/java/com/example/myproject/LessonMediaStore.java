@@ -0,0 +1,210 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * The media files (video, text, image) of the lessons trainers add, one file per content
+ * MediaIngestion stores a picked file under its hash, so lessons using the same file share it.
+ * A file is kept while a lesson row references it (the reference count is read from lesson_table),
+ * and deleted in the background once the last lesson using it is deleted or edited to another file.
+ * Files picked and never saved, and the files of older versions (prefix_<time>.ext in the app storage),
+ * are found by a sweep at startup.
+ */
+public class LessonMediaStore {
+
+    private static final String TAG = "LessonMediaStore";
+    private static final String DIRECTORY = "media";
+    private static final int BATCH_SIZE = 500; // Lessons read from the DB at once
+    //files younger than this are never deleted - they may be picked in an add lesson screen that wasn't saved yet
+    static final long GRACE_MS = 60 * 60 * 1000;
+    //the files of the versions before the store, copied straight into the app storage
+    private static final Pattern LEGACY_NAME = Pattern.compile("(video|text|image)_\\d+\\.(mp4|txt|jpg)(\\.part)?");
+
+    private static volatile LessonMediaStore INSTANCE;
+
+    private final File directory;
+    private final File legacyDirectory;
+    private final LessonDao lessonDao;
+    private final DatabaseScheduler scheduler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(); // Checks and deletes the files
+    private final AtomicBoolean sweepPending = new AtomicBoolean(false); // A sweep is queued and hasn't started
+
+    LessonMediaStore(File directory, File legacyDirectory, LessonDao lessonDao, DatabaseScheduler scheduler) {
+        this.directory = directory;
+        this.legacyDirectory = legacyDirectory;
+        this.lessonDao = lessonDao;
+        this.scheduler = scheduler;
+        directory.mkdirs();
+    }
+
+    //if its null, create the store
+    public static LessonMediaStore getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LessonMediaStore.class) {
+                if (INSTANCE == null) {
+                    Context appContext = context.getApplicationContext();
+                    INSTANCE = new LessonMediaStore(new File(appContext.getFilesDir(), DIRECTORY),
+                            appContext.getFilesDir(), AppRoomDatabase.getDatabase(appContext).lessonDao(),
+                            AppRoomDatabase.getScheduler());
+                    INSTANCE.requestSweep(); // Files picked and never saved, or left by a crash
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    //where MediaIngestion stores the picked files
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Deletes the files of the lesson that no lesson references anymore, in the background
+     * Call it after the lesson was deleted or edited, with the lesson as it was before.
+     * @param lesson The old lesson, may be null
+     */
+    public void release(Lesson lesson) {
+        if (lesson == null) return;
+        List<File> files = new ArrayList<>();
+        for (String url : new String[]{lesson.getImageUrl(), lesson.getThumbnailUrl(), lesson.getDetailImageUrl(),
+                lesson.getVideoUrl(), lesson.getPosterUrl(), lesson.getTextFileUrl()}) {
+            File file = storedFile(url);
+            if (file != null) {
+                files.add(file);
+            }
+        }
+        if (!files.isEmpty()) {
+            executor.execute(() -> releaseFiles(files));
+        }
+    }
+
+    /**
+     * Deletes every stored file no lesson references, in the background
+     * For startup and for bulk changes. Extra calls while a sweep is queued are merged.
+     */
+    public void requestSweep() {
+        if (sweepPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                sweepPending.set(false); // Changes from now on need another sweep
+                sweep();
+            });
+        }
+    }
+
+    private void releaseFiles(List<File> files) {
+        try {
+            for (File file : files) {
+                String url = Uri.fromFile(file).toString();
+                int references = scheduler.submitRead(() -> lessonDao.countMediaReferences(url, file.getAbsolutePath())).get();
+                if (references == 0) {
+                    deleteIfOld(file);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Error releasing lesson media: " + e.getMessage());
+        }
+    }
+
+    //deletes the stored files that aren't referenced, blocks - runs on the store's thread, or in tests
+    int sweep() {
+        try {
+            Set<String> referenced = new HashSet<>();
+            long lastId = 0;
+            while (true) {
+                long afterId = lastId;
+                List<LessonMedia> page = scheduler.submitRead(() -> lessonDao.getMediaAfter(afterId, BATCH_SIZE)).get();
+                if (page.isEmpty()) break;
+                for (LessonMedia media : page) {
+                    for (String url : media.getAllUrls()) {
+                        File file = storedFile(url);
+                        if (file != null) {
+                            referenced.add(file.getAbsolutePath());
+                        }
+                    }
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+
+            int deleted = 0;
+            for (File file : storedFiles()) {
+                if (!referenced.contains(file.getAbsolutePath()) && deleteIfOld(file)) {
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                Log.i(TAG, "Deleted " + deleted + " unused lesson media files");
+            }
+            return deleted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Error sweeping lesson media: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    private boolean deleteIfOld(File file) {
+        if (System.currentTimeMillis() - file.lastModified() < GRACE_MS) {
+            return false; // Picked a moment ago, a sweep later gets it if it stays unused
+        }
+        return file.delete();
+    }
+
+    //the files the store manages: the store directory and the old copies in the app storage
+    private List<File> storedFiles() {
+        List<File> files = new ArrayList<>();
+        File[] stored = directory.listFiles();
+        if (stored != null) {
+            for (File file : stored) {
+                files.add(file);
+            }
+        }
+        File[] legacy = legacyDirectory.listFiles();
+        if (legacy != null) {
+            for (File file : legacy) {
+                if (file.isFile() && LEGACY_NAME.matcher(file.getName()).matches()) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * The file of a lesson url when the store manages it, null for resources, content:// urls
+     * and files elsewhere on the device
+     */
+    File storedFile(String url) {
+        if (url == null) return null;
+        String path;
+        if (url.startsWith("file://")) {
+            path = Uri.parse(url).getPath();
+        } else if (url.startsWith("/")) {
+            path = url;
+        } else {
+            return null;
+        }
+        if (path == null) return null;
+        File file = new File(path);
+        File parent = file.getParentFile();
+        if (directory.equals(parent)
+                || (legacyDirectory.equals(parent) && LEGACY_NAME.matcher(file.getName()).matches())) {
+            return file;
+        }
+        return null;
+    }
+}
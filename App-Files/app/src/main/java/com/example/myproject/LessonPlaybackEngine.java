@@ -0,0 +1,164 @@
+package com.example.myproject;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.MediaSource;
+import androidx.media3.exoplayer.source.ProgressiveMediaSource;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays the lesson videos, owned by the application (MoveItApplication) so it outlives the screens
+ * Released ExoPlayer instances are kept in a pool of up to MAX_PLAYERS and reused by every lesson screen,
+ * so opening a lesson doesn't create a new player with its threads and buffers.
+ * Videos from other apps (content://) and from the network are read through a disk cache (SimpleCache),
+ * so watching a lesson again doesn't depend on the other app or the connection. Files and the built in
+ * videos are on the device already and are read directly. The position of every lesson is kept,
+ * so a lesson opened again continues where it stopped.
+ * Must only be used on the main thread.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class LessonPlaybackEngine {
+
+    private static final String TAG = "LessonPlaybackEngine";
+    private static final int MAX_PLAYERS = 2; // Idle players kept, the visible lesson screen and the one it was opened from
+    private static final long CACHE_BYTES = 200L * 1024 * 1024; // Least recently watched videos are evicted above this
+    private static final String CACHE_DIR = "lesson_video_cache";
+    private static final String POSITIONS_PREFS = "playback_positions";
+    private static final long END_MARGIN_MS = 2000; // A lesson stopped this close to its end starts over next time
+
+    private final Context appContext;
+    private final SharedPreferences positions; // lesson id -> position in ms
+    private final DataSource.Factory localDataSourceFactory; // Files, raw resources and assets, a cache would only copy them
+    private final DataSource.Factory cachedDataSourceFactory;
+    private final List<ExoPlayer> idlePlayers = new ArrayList<>();
+    private final Map<ExoPlayer, Object> owners = new IdentityHashMap<>(); // Players in use and their screens
+
+    LessonPlaybackEngine(Context context) {
+        appContext = context.getApplicationContext();
+        positions = appContext.getSharedPreferences(POSITIONS_PREFS, Context.MODE_PRIVATE);
+        localDataSourceFactory = new DefaultDataSource.Factory(appContext);
+        SimpleCache cache = new SimpleCache(new File(appContext.getCacheDir(), CACHE_DIR),
+                new LeastRecentlyUsedCacheEvictor(CACHE_BYTES), new StandaloneDatabaseProvider(appContext));
+        cachedDataSourceFactory = new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(localDataSourceFactory)
+                .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR); // A broken cache still plays from the source
+    }
+
+    /**
+     * Gets a player for a screen and starts loading the lesson video at its saved position
+     * A screen holds at most one player and keeps it until it gives it back with release() when it stops.
+     * @param owner The screen, only it can release the player
+     * @param lessonId The lesson whose position is restored and saved
+     * @param videoUri The video, see ResourceRegistry.getVideoUri
+     * @param playWhenReady Start playing once loaded, or wait paused
+     */
+    public ExoPlayer acquire(Object owner, long lessonId, Uri videoUri, boolean playWhenReady) {
+        ExoPlayer player = takePlayer();
+        owners.put(player, owner);
+
+        player.setMediaSource(createMediaSource(videoUri), positions.getLong(key(lessonId), C.TIME_UNSET));
+        player.setPlayWhenReady(playWhenReady);
+        player.prepare();
+        return player;
+    }
+
+    /**
+     * Saves the position of the lesson and puts the player back in the pool
+     * Does nothing when the player isn't the screen's. A full pool frees the player instead.
+     */
+    public void release(Object owner, long lessonId, ExoPlayer player) {
+        if (player == null || owners.get(player) != owner) {
+            return;
+        }
+        savePosition(lessonId, player);
+        owners.remove(player);
+        if (idlePlayers.size() >= MAX_PLAYERS) {
+            player.release(); // More screens played at once than the pool keeps
+            return;
+        }
+        player.stop(); // Frees the decoders, the player itself stays for the next lesson
+        player.clearMediaItems();
+        idlePlayers.add(player);
+    }
+
+    /**
+     * Frees the idle players when the app is in the background or the system runs low on memory
+     * Called by MoveItApplication.onTrimMemory
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            for (ExoPlayer player : idlePlayers) {
+                player.release();
+            }
+            idlePlayers.clear();
+        }
+    }
+
+    //an idle player, or a new one - a player in use is never taken from its screen
+    private ExoPlayer takePlayer() {
+        if (!idlePlayers.isEmpty()) {
+            return idlePlayers.remove(idlePlayers.size() - 1);
+        }
+        return createPlayer();
+    }
+
+    private ExoPlayer createPlayer() {
+        ExoPlayer player = new ExoPlayer.Builder(appContext).build();
+        player.addListener(new Player.Listener() {
+            @Override
+            public void onPlayerError(PlaybackException error) {
+                Log.e(TAG, "Error playing lesson video: " + error.getMessage());
+            }
+        });
+        return player;
+    }
+
+    private MediaSource createMediaSource(Uri videoUri) {
+        DataSource.Factory factory = isLocal(videoUri) ? localDataSourceFactory : cachedDataSourceFactory;
+        return new ProgressiveMediaSource.Factory(factory).createMediaSource(MediaItem.fromUri(videoUri));
+    }
+
+    //content:// is cached too: the other app may be slow, remote (cloud documents) or take the permission back
+    private static boolean isLocal(Uri videoUri) {
+        String scheme = videoUri.getScheme();
+        return scheme == null || "file".equals(scheme) || "android.resource".equals(scheme) || "asset".equals(scheme);
+    }
+
+    private void savePosition(long lessonId, ExoPlayer player) {
+        long duration = player.getDuration();
+        long position = player.getCurrentPosition();
+        if (player.getPlaybackState() == Player.STATE_ENDED
+                || (duration != C.TIME_UNSET && position >= duration - END_MARGIN_MS)) {
+            positions.edit().remove(key(lessonId)).apply(); // Watched to the end, starts over next time
+        } else if (position > 0) {
+            positions.edit().putLong(key(lessonId), position).apply();
+        }
+    }
+
+    private static String key(long lessonId) {
+        return "lesson_" + lessonId;
+    }
+}
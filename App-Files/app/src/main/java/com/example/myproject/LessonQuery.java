@@ -0,0 +1,151 @@
+package com.example.myproject;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the SQL of a lessons list query: combined filters, a sort order and limit/offset
+ * Everything runs in SQLite - level and trainer filter on the indexed columns of lesson_table,
+ * the favorite and done filters on the state of the user (user_lesson_state, joined by its primary key)
+ * and only the LessonCard columns are read. Values are always bound as arguments, never put into the SQL text.
+ * Example: new LessonQuery().forUser(userId).level(Level.BEGINNER).favoritesOnly().sortBy(LessonQuery.Sort.TITLE)
+ */
+public class LessonQuery {
+
+    /**
+     * Sort orders of the lessons list, id is the last key so pages never overlap
+     */
+    public enum Sort {
+        OLDEST("id"), // Order the lessons were added
+        NEWEST("id DESC"),
+        TITLE("title, id"),
+        TRAINER("trainerName, id"); // Uses the trainerName index
+
+        final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    private long userId = -1; // Whose favorites and progress, -1 = no user (nothing is favorite or done)
+    private Level level; // null = all levels
+    private String trainerName; // null = all trainers
+    private boolean favoritesOnly = false;
+    private Boolean registered; // null = both, true = only completed lessons, false = only not completed
+    private Sort sort = Sort.OLDEST;
+    private int limit = -1; // -1 = no limit
+    private int offset = 0;
+
+    //the user whose flags the cards show and the favorite/done filters use
+    public LessonQuery forUser(long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    //only lessons of this level
+    public LessonQuery level(Level level) {
+        this.level = level;
+        return this;
+    }
+
+    //only lessons of this trainer
+    public LessonQuery trainer(String trainerName) {
+        this.trainerName = trainerName;
+        return this;
+    }
+
+    //only the favorite lessons
+    public LessonQuery favoritesOnly() {
+        this.favoritesOnly = true;
+        return this;
+    }
+
+    //only lessons the user registered as completed (true) or didn't (false)
+    public LessonQuery registered(boolean registered) {
+        this.registered = registered;
+        return this;
+    }
+
+    public LessonQuery sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * Reads only a part of the result, for lists that aren't paged
+     * Paged lists handle the limit and offset themselves and ignore these.
+     */
+    public LessonQuery limit(int limit, int offset) {
+        this.limit = limit;
+        this.offset = offset;
+        return this;
+    }
+
+    //the query of the lesson cards with the limit and offset
+    public SupportSQLiteQuery build() {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = select(args);
+        if (limit >= 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            args.add(limit);
+            args.add(offset);
+        }
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    //the query of the lesson cards for a PagingSource, which adds its own LIMIT and OFFSET
+    public SupportSQLiteQuery buildForPaging() {
+        List<Object> args = new ArrayList<>();
+        return new SimpleSQLiteQuery(select(args).toString(), args.toArray());
+    }
+
+    private StringBuilder select(List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(LessonCard.COLUMNS)
+                .append(LessonCard.FROM_LESSONS_OF_USER.replace(":userId", "?"));
+        args.add(userId);
+        String separator = " WHERE ";
+        if (level != null) {
+            sql.append(separator).append("level = ?");
+            args.add(level.code);
+            separator = " AND ";
+        }
+        if (trainerName != null) {
+            sql.append(separator).append("trainerName = ?");
+            args.add(trainerName);
+            separator = " AND ";
+        }
+        if (favoritesOnly) {
+            sql.append(separator).append("state.isFavorites = 1");
+            separator = " AND ";
+        }
+        if (registered != null) {
+            sql.append(separator).append("COALESCE(state.isRegistered, 0) = ?");
+            args.add(registered ? 1 : 0);
+        }
+        return sql.append(" ORDER BY ").append(sort.orderBy);
+    }
+
+    // Two queries with the same filters and sort give the same lessons, so the list can skip reloading
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LessonQuery)) return false;
+        LessonQuery other = (LessonQuery) o;
+        return userId == other.userId && favoritesOnly == other.favoritesOnly
+                && limit == other.limit && offset == other.offset
+                && Objects.equals(level, other.level)
+                && Objects.equals(trainerName, other.trainerName)
+                && Objects.equals(registered, other.registered)
+                && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, level, trainerName, favoritesOnly, registered, sort, limit, offset);
+    }
+}
@@ -2,30 +2,88 @@ package com.example.myproject;
 
 
 import android.app.Application;
+import android.content.ContentResolver;
+import android.database.sqlite.SQLiteConstraintException;
+import android.net.Uri;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class LessonRepository {
 
+    private static final String TAG = "LessonRepository";
+    private static final int PAGE_SIZE = 20; // Number of lessons loaded per page in the lessons list
+    private static final int MAX_LOADED_LESSONS = 200; // Pages far from the screen are dropped above this, so memory stays bounded
+    //catalog imports and exports read and write files for minutes, so they get their own thread
+    //instead of holding a DB lane - the import batches are still inserted on the write lane
+    private static final ExecutorService catalogExecutor = Executors.newSingleThreadExecutor();
+
     private final LessonDao lessonDao; // Data Access Object for the Lesson table
-    private final LiveData<List<Lesson>> allLessons; // LiveData list of all lessons from the database
-    private final ExecutorService executorService; // Executor to run database operations off the main thread
+    private final UserLessonStateDao stateDao; // Favorites and progress of every user
+    private final LessonCatalogTransfer catalogTransfer; // Streams the catalog to and from files
+    private final ContentResolver contentResolver; // Opens the catalog files
+    private final DatabaseScheduler scheduler; // Shared scheduler that runs database operations off the main thread
+    private final LessonSearchIndexer searchIndexer; // Reads new lesson text files into the search index
+    private final LessonMediaStore mediaStore; // Deletes the media files no lesson uses anymore
+    private final VideoPosterExtractor posterExtractor; // Reads the video posters the lessons don't have yet
 
     // Constructor receives Application to initialize the database and DAO
     public LessonRepository(Application application){
         AppRoomDatabase db = AppRoomDatabase.getDatabase(application); // Get the singleton instance of the Room database
         lessonDao = db.lessonDao(); // Initialize the DAO
-        allLessons = lessonDao.getAllLessons(); // Get LiveData of all lessons
-        executorService = Executors.newSingleThreadExecutor(); // Set up a background thread for database operations
+        stateDao = db.userLessonStateDao();
+        scheduler = AppRoomDatabase.getScheduler(); // Writes run one by one on its write lane
+        catalogTransfer = new LessonCatalogTransfer(lessonDao, scheduler);
+        contentResolver = application.getContentResolver();
+        searchIndexer = LessonSearchIndexer.getInstance(application); // Indexes the lessons once when created
+        posterExtractor = VideoPosterExtractor.getInstance(application); // Reads the missing posters once when created
+        mediaStore = LessonMediaStore.getInstance(application); // Sweeps once when created
+    }
+
+    // Returns the cards of the lessons of one level as pages, filtered by SQLite instead of in memory
+    public LiveData<PagingData<LessonCard>> getLessonsByLevel(long userId, Level level){
+        Pager<Integer, LessonCard> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED_LESSONS),
+                () -> lessonDao.getCardsByLevel(userId, level));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    // Returns the lesson cards of the query with its limit and offset, updated when lessons change
+    public LiveData<List<LessonCard>> queryCards(LessonQuery query){
+        return lessonDao.observeCards(query.build());
     }
 
-    // Returns LiveData so the UI can observe the lesson list for changes
-    public LiveData<List<Lesson>> getAllLessons(){
-        return allLessons;
+    // Returns the lesson cards of the query as pages, the pager sets the limit and offset
+    public LiveData<PagingData<LessonCard>> getCardPages(LessonQuery query){
+        SupportSQLiteQuery sql = query.buildForPaging(); // Later changes to the query don't affect these pages
+        Pager<Integer, LessonCard> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED_LESSONS),
+                () -> lessonDao.pageCards(sql));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    // Returns the lessons matching a full-text query (LessonSearch.toMatchQuery) as ranked pages
+    public LiveData<PagingData<LessonCard>> searchLessons(long userId, String match){
+        if (match == null){
+            return new MutableLiveData<>(PagingData.empty()); // Nothing typed, nothing found
+        }
+        Pager<Integer, LessonCard> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED_LESSONS),
+                () -> lessonDao.searchCards(LessonSearch.toSearchQuery(userId, match)));
+        return PagingLiveData.getLiveData(pager);
     }
 
     //to open the details
@@ -33,23 +91,157 @@ public class LessonRepository {
         return lessonDao.getLessonById(id);
     }
 
+    // Returns the favorite and done flags of the user in the lesson, null until the user changes one
+    public LiveData<UserLessonState> getLessonState(long userId, long lessonId){
+        return stateDao.getState(userId, lessonId);
+    }
+
     // Inserts a lesson into the database (runs in background)
     public void insert(Lesson lesson){
-        executorService.execute(()->lessonDao.insert(lesson));
+        scheduler.write(()->{
+            long id = lessonDao.insert(lesson);
+            searchIndexer.requestIndexing(id, lesson.getTextFileUrl());
+            if (lesson.getDurationMs() == null) {
+                posterExtractor.requestPoster(id, lesson.getVideoUrl()); // The video wasn't read when it was picked
+            }
+        });
     }
 
     // Updates a lesson in the database (runs in background)
     public void update(Lesson lesson){
-        executorService.execute(()->lessonDao.update(lesson));
+        scheduler.write(()->{
+            Lesson old = lessonDao.getLessonByIdNow(lesson.getId());
+            lessonDao.update(lesson);
+            indexIfTextChanged(old, lesson);
+            posterIfVideoChanged(old, lesson);
+            mediaStore.release(old); // The replaced files, if no other lesson uses them
+        });
+    }
+
+    // Writes only the edited columns of a lesson (runs in background)
+    public void updateContent(Lesson lesson){
+        scheduler.write(()->{
+            Lesson old = lessonDao.getLessonByIdNow(lesson.getId());
+            lessonDao.updateContent(lesson.getId(), lesson.getTitle(), lesson.getDescription(), lesson.getImageUrl(),
+                    lesson.getThumbnailUrl(), lesson.getDetailImageUrl(), lesson.getVideoUrl(), lesson.getPosterUrl(),
+                    lesson.getDurationMs(), lesson.getTextFileUrl(), lesson.getLevel());
+            indexIfTextChanged(old, lesson);
+            posterIfVideoChanged(old, lesson);
+            mediaStore.release(old);
+        });
+    }
+
+    // Title and description are indexed by triggers, only a new text file has to be read
+    private void indexIfTextChanged(Lesson old, Lesson lesson){
+        if (old != null && !old.getTextFileUrl().equals(lesson.getTextFileUrl())) {
+            searchIndexer.requestIndexing(lesson.getId(), lesson.getTextFileUrl());
+        }
+    }
+
+    // A new video saved without its poster and duration is read again, an unchanged one keeps them
+    private void posterIfVideoChanged(Lesson old, Lesson lesson){
+        if (old != null && !old.getVideoUrl().equals(lesson.getVideoUrl()) && lesson.getDurationMs() == null) {
+            posterExtractor.requestPoster(lesson.getId(), lesson.getVideoUrl());
+        }
+    }
+
+    // Changes only the favorite flag of the user in a lesson (runs in background)
+    public void setFavorite(long userId, long lessonId, boolean isFavorite){
+        writeState(userId, lessonId, ()->stateDao.setFavorite(userId, lessonId, isFavorite));
     }
 
-    // Deletes a specific user from the database (runs in background)
+    // Changes only the done flag of the user in a lesson (runs in background)
+    public void setRegistered(long userId, long lessonId, boolean isRegistered){
+        writeState(userId, lessonId, ()->stateDao.setRegistered(userId, lessonId, isRegistered));
+    }
+
+    // Writes a flag of the user, the row needs both the user and the lesson to exist (foreign keys)
+    // With no saved user (-1) there is nothing to keep, and a user or lesson deleted meanwhile only skips the flag
+    private void writeState(long userId, long lessonId, Runnable write){
+        if (userId == -1) {
+            return;
+        }
+        scheduler.write(()->{
+            try {
+                write.run();
+            } catch (SQLiteConstraintException e) {
+                Log.w(TAG, "No user " + userId + " or lesson " + lessonId + " for the flag", e);
+            }
+        });
+    }
+
+    // Deletes the lesson with this id (runs in background)
+    public void deleteById(long id){
+        scheduler.write(()->{
+            Lesson old = lessonDao.getLessonByIdNow(id);
+            lessonDao.deleteById(id);
+            mediaStore.release(old); // Its files, if no other lesson uses them
+        });
+    }
+
+    // Deletes a specific lesson from the database (runs in background)
     public void delete(Lesson lesson){
-        executorService.execute(()->lessonDao.delete(lesson));
+        scheduler.write(()->{
+            Lesson old = lessonDao.getLessonByIdNow(lesson.getId());
+            lessonDao.delete(lesson);
+            mediaStore.release(old);
+        });
     }
 
-    // Deletes all users from the table (runs in background)
+    // Deletes all lessons from the table (runs in background)
     public void deleteAll(){
-        executorService.execute(lessonDao::deleteAll);
+        scheduler.write(()->{
+            lessonDao.deleteAll();
+            mediaStore.requestSweep();
+        });
+    }
+
+    // Inserts many lessons in one transaction (runs in background), the future gives their new ids
+    public Future<List<Long>> insertAll(List<Lesson> lessons){
+        return scheduler.submitWrite(()->{
+            List<Long> ids = lessonDao.insertAll(lessons);
+            searchIndexer.requestIndexing();
+            posterExtractor.requestBackfill();
+            return ids;
+        });
+    }
+
+    // Updates many lessons in one transaction (runs in background)
+    public void updateAll(List<Lesson> lessons){
+        scheduler.write(()->{
+            lessonDao.updateAll(lessons);
+            searchIndexer.requestIndexing();
+            posterExtractor.requestBackfill();
+            mediaStore.requestSweep(); // Cheaper than reading every old lesson first
+        });
+    }
+
+    // Deletes the lessons with these ids in one transaction (runs in background)
+    public void deleteAll(List<Long> ids){
+        scheduler.write(()->{
+            lessonDao.deleteByIds(ids);
+            mediaStore.requestSweep();
+        });
+    }
+
+    // Imports a lesson catalog file (runs in background), the lessons are inserted in batches
+    public Future<LessonCatalogTransfer.ImportResult> importCatalog(Uri catalogUri){
+        return catalogExecutor.submit(()->{
+            try (InputStream in = contentResolver.openInputStream(catalogUri)) {
+                LessonCatalogTransfer.ImportResult result = catalogTransfer.importCatalog(in);
+                searchIndexer.requestIndexing();
+                posterExtractor.requestBackfill();
+                return result;
+            }
+        });
+    }
+
+    // Exports all lessons to a catalog file (runs in background), the future gives the number of lessons
+    public Future<Integer> exportCatalog(Uri catalogUri, boolean gzip){
+        return catalogExecutor.submit(()->{
+            try (OutputStream out = contentResolver.openOutputStream(catalogUri)) {
+                return catalogTransfer.exportCatalog(out, gzip);
+            }
+        });
     }
 }
@@ -0,0 +1,78 @@
+package com.example.myproject;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+/**
+ * Turns what the user typed into a full-text query for lesson_fts
+ * Every word must appear in the lesson, the last word may still be half typed,
+ * so all words match as prefixes ("יד" finds "ידיים"). Characters with a meaning in the
+ * FTS query syntax (quotes, *, -, parentheses) are dropped, so any input is a valid query.
+ */
+public final class LessonSearch {
+
+    private LessonSearch() {
+    }
+
+    /**
+     * @param text What the user typed
+     * @return The MATCH query, or null if there is nothing to search for
+     */
+    @Nullable
+    public static String toMatchQuery(@Nullable String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append(word).append('*');
+                word.setLength(0);
+            }
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    /**
+     * The lesson cards matching a query of toMatchQuery with the flags of the user, for a PagingSource
+     * lesson_fts is searched once, and the rank is read from matchinfo 'b' of that search:
+     * one 32 bit mask per word with a bit for every column the word was found in.
+     * Lessons with all the words in the title come first, then in the description, then the rest.
+     * @param match A query of toMatchQuery, not null
+     */
+    public static SupportSQLiteQuery toSearchQuery(long userId, @NonNull String match) {
+        String inEveryWord = columnsOfEveryWord(match.split(" ").length);
+        String sql = "SELECT " + LessonCard.COLUMNS
+                + " FROM (SELECT rowid AS hitId, hex(matchinfo(lesson_fts, 'b')) AS hits"
+                + " FROM lesson_fts WHERE lesson_fts MATCH ?) AS found"
+                + " JOIN lesson_table ON lesson_table.id = found.hitId"
+                + " LEFT JOIN user_lesson_state AS state ON state.lessonId = lesson_table.id AND state.userId = ?"
+                + " ORDER BY ((" + inEveryWord + ") & 1) * 4 + ((" + inEveryWord + ") & 2) DESC, id";
+        return new SimpleSQLiteQuery(sql, new Object[]{match, userId});
+    }
+
+    /**
+     * SQL of the columns every word was found in: 1 title, 2 description, 4 body
+     * The masks are little-endian (ARM and x86), so the title/description/body bits are the second
+     * hex digit of each 8 digit mask. SQLite has no hex to int, the digit is looked up in a string.
+     */
+    private static String columnsOfEveryWord(int words) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sql.append(" & ");
+            }
+            sql.append("(instr('0123456789ABCDEF', substr(found.hits, ").append(i * 8 + 2).append(", 1)) - 1)");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts the text files of the lessons into the full-text search index (lesson_fts)
+ * Title and description are copied by triggers, but the text file has to be read in the background.
+ * A full pass walks lesson_table once in id order and reads the files that aren't indexed yet -
+ * it runs once when the indexer is created and after bulk writes, a single lesson is indexed on its own.
+ */
+public class LessonSearchIndexer {
+
+    private static final String TAG = "SearchIndexer";
+    private static final int BATCH_SIZE = 50; // Lessons read from the DB at once
+    private static final int MAX_BODY_CHARS = 256 * 1024; // Only the beginning of huge files is searchable
+
+    private static volatile LessonSearchIndexer INSTANCE;
+
+    private final Context appContext;
+    private final LessonDao lessonDao;
+    private final DatabaseScheduler scheduler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(); // Reads the files
+    private final AtomicBoolean pending = new AtomicBoolean(false); // A pass is queued and hasn't started
+
+    private LessonSearchIndexer(Context context) {
+        appContext = context.getApplicationContext();
+        lessonDao = AppRoomDatabase.getDatabase(appContext).lessonDao();
+        scheduler = AppRoomDatabase.getScheduler();
+    }
+
+    //if its null, create the indexer
+    public static LessonSearchIndexer getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LessonSearchIndexer.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new LessonSearchIndexer(context);
+                    INSTANCE.requestIndexing(); // Lessons from the seed DB, a migration or an earlier run
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Indexes every lesson whose text file changed since it was indexed, in the background
+     * For bulk writes, call it after the write finished so the pass sees the new rows.
+     * Extra calls while a pass is queued are merged.
+     */
+    public void requestIndexing() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(this::indexPending);
+        }
+    }
+
+    /**
+     * Indexes the text file of one lesson in the background, after it was added or got another file
+     */
+    public void requestIndexing(long lessonId, String textFileUrl) {
+        executor.execute(() -> {
+            String body = readText(textFileUrl);
+            // Skipped by the DAO if the lesson got another file meanwhile, its own request follows
+            scheduler.write(() -> lessonDao.indexLessonText(lessonId, textFileUrl, body));
+        });
+    }
+
+    private void indexPending() {
+        pending.set(false); // Changes from now on need another pass
+        try {
+            List<Lesson> lessons;
+            long lastId = 0;
+            int indexed = 0;
+            while (true) {
+                long afterId = lastId;
+                lessons = scheduler.submitRead(() -> lessonDao.getLessonsToIndex(afterId, BATCH_SIZE)).get();
+                if (lessons.isEmpty()) break;
+                for (Lesson lesson : lessons) {
+                    String body = readText(lesson.getTextFileUrl());
+                    // Waits for the write, so the files aren't read faster than the index is written
+                    scheduler.submitWrite(() -> {
+                        lessonDao.indexLessonText(lesson.getId(), lesson.getTextFileUrl(), body);
+                        return null;
+                    }).get();
+                }
+                indexed += lessons.size();
+                lastId = lessons.get(lessons.size() - 1).getId();
+            }
+            if (indexed > 0) {
+                Log.i(TAG, "Indexed the text of " + indexed + " lessons");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Error indexing lesson texts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the text file, a file that can't be read is indexed without text so it isn't retried
+     */
+    private String readText(String textUrl) {
+        try (InputStream inputStream = appContext.getContentResolver().openInputStream(Uri.parse(textUrl));
+             Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[8 * 1024];
+            int read;
+            while (sb.length() < MAX_BODY_CHARS && (read = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, Math.min(read, MAX_BODY_CHARS - sb.length()));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            Log.w(TAG, "Can't read " + textUrl + " for the search index: " + e.getMessage());
+            return "";
+        }
+    }
+}
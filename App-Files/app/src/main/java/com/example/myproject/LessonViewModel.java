@@ -1,28 +1,151 @@
 package com.example.myproject;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
-import java.util.List;
+import java.util.Objects;
 
 public class LessonViewModel extends AndroidViewModel {
 
+    static final Level DEFAULT_LEVEL = Level.BEGINNER; //level of users that didn't choose one
+    private static final long SEARCH_DEBOUNCE_MS = 300; //typing pause before the search runs
+
     private LessonRepository repository; //all the actions that about db pass through him
-    private LiveData<List<Lesson>> allLessons; //containing all lessons
+    private final UserRepository userRepository; //the user of the lessons screen
+    private final MutableLiveData<Level> selectedLevel = new MutableLiveData<>(); //the level of the selected tab
+    private final LiveData<PagingData<LessonCard>> lessonsOfLevel; //pages of the lesson cards in the selected level
+    private final MutableLiveData<Long> userId = new MutableLiveData<>(); //the user of the lessons screen
+    private final MediatorLiveData<LessonsScreenState> screenState = new MediatorLiveData<>(); //user + level snapshot
+    private User currentUser; //last emission of the user, null if there is none
+    private Level requestedLevel; //level asked for by the screen (from settings), before the user level
+    private final MutableLiveData<String> searchMatch = new MutableLiveData<>(); //full-text query, after the debounce
+    private final LiveData<PagingData<LessonCard>> searchResults; //ranked pages of the search
+    private final Handler searchHandler = new Handler(Looper.getMainLooper()); //delays the search while typing
 
-    //brings the repository, and then sends the lessons to allLessons
+    //brings the repository, and then the pages of lesson cards follow the level and the search
     public LessonViewModel(@NonNull Application application){
         super(application);
         repository = new LessonRepository(application);
-        allLessons = repository.getAllLessons();
+        //every level change starts a new paged query, the pages are kept while the screen rotates
+        //the level is only picked after start(), so the user id is already known here
+        lessonsOfLevel = Transformations.switchMap(selectedLevel, level ->
+                PagingLiveData.cachedIn(repository.getLessonsByLevel(getUserId(), level), ViewModelKt.getViewModelScope(this)));
+
+        //a new query only runs when the user stopped typing and the words changed
+        searchResults = Transformations.switchMap(searchMatch, match ->
+                PagingLiveData.cachedIn(repository.searchLessons(getUserId(), match), ViewModelKt.getViewModelScope(this)));
+
+        userRepository = new UserRepository(application);
+        LiveData<User> user = Transformations.switchMap(userId, userRepository::getUserById);
+        screenState.addSource(user, u -> {
+            currentUser = u;
+            if (selectedLevel.getValue() == null) {
+                //the first user emission picks the starting level, the state follows through selectedLevel
+                selectedLevel.setValue(startLevel(u));
+            } else {
+                publishState();
+            }
+        });
+        screenState.addSource(selectedLevel, level -> publishState());
+    }
+
+    /**
+     * Starts the lessons screen of the user, later calls (e.g. after rotation) are ignored
+     * @param id The user id, -1 when there is no user
+     * @param level The level to start on, or null for the level of the user
+     */
+    public void start(long id, Level level){
+        if (userId.getValue() != null){
+            return;
+        }
+        requestedLevel = level;
+        userId.setValue(id);
+    }
+
+    //the user of the screen, -1 before start() or when there is no user
+    private long getUserId(){
+        Long id = userId.getValue();
+        return id == null ? -1 : id;
+    }
+
+    //gets the ranked pages of the last search
+    public LiveData<PagingData<LessonCard>> getSearchResults(){
+        return searchResults;
+    }
+
+    /**
+     * Searches the lessons as the user types, call it on every text change
+     * The search runs once typing paused for SEARCH_DEBOUNCE_MS, and not at all if the words didn't change
+     * @param text What the user typed so far
+     */
+    public void search(String text){
+        String match = LessonSearch.toMatchQuery(text);
+        searchHandler.removeCallbacksAndMessages(null);
+        searchHandler.postDelayed(() -> {
+            if (!Objects.equals(match, searchMatch.getValue())){
+                searchMatch.setValue(match);
+            }
+        }, SEARCH_DEBOUNCE_MS);
+    }
+
+    @Override
+    protected void onCleared(){
+        searchHandler.removeCallbacksAndMessages(null);
+        super.onCleared();
+    }
+
+    //gets the state of the lessons screen, emits only when something in it changed
+    public LiveData<LessonsScreenState> getScreenState(){
+        return screenState;
     }
 
-    //gets all the lessons
-    public LiveData<List<Lesson>> getAllLessons(){
-        return allLessons;
+    //the level sent by the screen, otherwise the level of the user, otherwise beginners
+    private Level startLevel(User user){
+        if (requestedLevel != null){
+            return requestedLevel;
+        }
+        if (user != null && user.getLevel() != null){
+            return user.getLevel();
+        }
+        return DEFAULT_LEVEL;
+    }
+
+    //builds the snapshot of the user and level, and sends it if it differs from the last one
+    private void publishState(){
+        Level level = selectedLevel.getValue();
+        if (level == null){
+            return; //the user wasn't loaded yet
+        }
+        LessonsScreenState state = new LessonsScreenState(
+                currentUser == null ? null : currentUser.getUsername(),
+                currentUser != null && currentUser.getRole() != Role.TRAINEE,
+                level);
+        if (!state.equals(screenState.getValue())){
+            screenState.setValue(state);
+        }
+    }
+
+    //gets the pages of lessons of the selected level
+    public LiveData<PagingData<LessonCard>> getLessonsOfLevel(){
+        return lessonsOfLevel;
+    }
+
+    //changes the level, ignores the same level so the list doesn't reload
+    public void setLevel(Level level){
+        if (level != selectedLevel.getValue()){
+            selectedLevel.setValue(level);
+        }
     }
 
     //insert a lesson
@@ -35,6 +158,31 @@ public class LessonViewModel extends AndroidViewModel {
         repository.update(lesson);
     }
 
+    //update only the columns the trainer edited
+    public void updateContent (Lesson lesson){
+        repository.updateContent(lesson);
+    }
+
+    //gets the favorite and completed flags of the user in a lesson, null until the user changes one
+    public LiveData<UserLessonState> getLessonState(long userId, long lessonId){
+        return repository.getLessonState(userId, lessonId);
+    }
+
+    //marks a lesson as favorite of the user or not, writes only that flag
+    public void setFavorite (long userId, long lessonId, boolean isFavorite){
+        repository.setFavorite(userId, lessonId, isFavorite);
+    }
+
+    //marks a lesson as completed by the user or not, writes only that flag
+    public void setRegistered (long userId, long lessonId, boolean isRegistered){
+        repository.setRegistered(userId, lessonId, isRegistered);
+    }
+
+    //delete the lesson with this id
+    public void deleteById (long id){
+        repository.deleteById(id);
+    }
+
     //delete specific lesson
     public void delete (Lesson lesson){
         repository.delete(lesson);
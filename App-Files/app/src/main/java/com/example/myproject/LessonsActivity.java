@@ -20,9 +20,6 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.tabs.TabLayout;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Main activity for displaying lessons organized by difficulty levels (tabs)
  * Features different functionality based on user role:
@@ -39,14 +36,10 @@ public class LessonsActivity extends AppCompatActivity {
     private FloatingActionButton fab; // Floating action button for adding lessons (trainers only)
 
     // State management variables
-    private String userLevel = "מתחילים"; // Default level for new users (Beginners)
-    private boolean isFirstLoad = true; // Flag to handle initial load behavior
-    private TabLayout.OnTabSelectedListener tabSelectedListener;
+    private LessonsScreenState currentState; // Last snapshot that was drawn, null before the first one
+    private ItemTouchHelper swipeToDeleteHelper; // Attached only while the user is a trainer
     private RecyclerView recyclerview; // RecyclerView for displaying the lesson cards
-
-
-
-    private List<Lesson> allLessons = new ArrayList<>(); // Complete list of lessons from database
+    private long userId; // The logged in user, whose favorites and progress the cards show
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -69,27 +62,32 @@ public class LessonsActivity extends AppCompatActivity {
         adapter = new LessonAdapter(this);
 
         // Set up favorite button click listener in lesson cards
-        // When user clicks favorite, update lesson in database
+        // When user clicks favorite, update only the favorite flag of this user in the lesson
         adapter.setOnFavoriteClickListener((position, isChecked) -> {
-            Lesson lesson = adapter.getLessonAt(position);
-            lesson.setFavorites(isChecked);
-            lessonViewModel.update(lesson);
+            LessonCard lesson = adapter.getLessonAt(position);
+            if (lesson == null) return; // Page was dropped while scrolling
+            lessonViewModel.setFavorite(userId, lesson.getId(), isChecked);
         });
 
         recyclerview.setAdapter(adapter);
 
-        // Create the 3 difficulty level tabs: Beginners, Intermediate, Advanced
+        // Lessons of the selected level arrive page by page, filtered by the database
+        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        lessonViewModel.getLessonsOfLevel().observe(this, pagingData ->
+                adapter.submitData(getLifecycle(), pagingData));
+
+        // Create the difficulty level tabs: Beginners, Intermediate, Advanced
         tabLayout = findViewById(R.id.tabLayout);
-        tabLayout.addTab(tabLayout.newTab().setText("מתחילים"));
-        tabLayout.addTab(tabLayout.newTab().setText("בינוני"));
-        tabLayout.addTab(tabLayout.newTab().setText("מתקדמים"));
+        for (Level level : Level.values()) {
+            tabLayout.addTab(tabLayout.newTab().setText(level.labelRes).setTag(level));
+        }
 
         // Set up tab selection listener to filter lessons when user switches tabs
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
             @Override
             public void onTabSelected(TabLayout.Tab tab) {
-                // Filter lessons to show only those matching selected difficulty level
-                filterLessonsByLevel(tab.getText().toString());
+                // Show only the lessons matching selected difficulty level
+                lessonViewModel.setLevel((Level) tab.getTag());
             }
 
             @Override
@@ -113,156 +111,100 @@ public class LessonsActivity extends AppCompatActivity {
             popup.show();
         });
 
-        // Load user data and set up lesson observation
-        observeUserAndLessons();
+        // Trainer tools, created once and switched on or off by the screen state
+        swipeToDeleteHelper = createSwipeToDeleteHelper();
+        fab.setOnClickListener(v -> {
+            Intent intent = new Intent(LessonsActivity.this, AddLessonActivity.class);
+            intent.putExtra("username", currentState.userName); // Pass trainer name for lesson creation
+            startActivity(intent);
+        });
 
+        // One snapshot of the user and the selected level per change
+        lessonViewModel.getScreenState().observe(this, this::render);
 
+        // Get user ID from shared preferences, and the level if it was passed from Settings activity
+        userId = getSharedPreferences("my_prefs", MODE_PRIVATE).getLong("userId", -1); //gets the user by the userId from shared-preferences
+        Intent intent = getIntent();
+        Level level = intent != null ? intent.getSerializableExtra("level", Level.class) : null;
+        lessonViewModel.start(userId, level);
     }
 
     /**
-     * Observes user data to determine role and permissions, then loads lessons
-     * Sets up different functionality based on user role (trainer vs trainee)
+     * Shows one snapshot of the screen state
+     * Does the same fixed work for every change, and only touches what changed since the last one
      */
-    private void observeUserAndLessons() {
-        UserViewModel userViewModel = new ViewModelProvider(this).get(UserViewModel.class);
-
-        // Get user ID from shared preferences
-        long userId = getSharedPreferences("my_prefs", MODE_PRIVATE).getLong("userId", -1); //gets the user by the userId from shared-preferences
-
-        if (userId != -1) {
-            // Observe user data to get username, role, and preferred difficulty level
-            userViewModel.getUserById(userId).observe(this, user ->{
-                if (user != null) {
-                    // Set user level, defaulting to beginners if not set
-                    // This ensures lessons load properly even for new users
-                    if (user.getLevel() == null){ //if it's null the level will be beginners, w/o it, the lessons don't load
-                        userLevel = "מתחילים";
-                    }
-                    else {
-                        userLevel = user.getLevel(); //gets the level of the user to set on the tabs
-                    }
+    private void render(LessonsScreenState state) {
+        LessonsScreenState previous = currentState;
+        currentState = state;
 
-                    // Display welcome message with username
-                    String name = user.getUsername(); //username shows on screen
-                    String role = user.getRole(); //gets the role and if he is a trainer he will have the fab btn
-                    tvUserName.setText("ברוך הבא: " + name);
-
-                    // Configure UI based on user role
-                    if (role.equals("מתאמן")) {
-                        // Trainee: Hide FAB button (no lesson creation permission)
-                        fab.setVisibility(View.GONE);
-                    } else {
-                        // Trainer: Enable full lesson management features
-
-                        // Enable long click to edit lessons
-                        adapter.setOnLongClickListener(lesson -> {
-                            Intent intent = new Intent(LessonsActivity.this, AddLessonActivity.class);
-                            intent.putExtra("lessonId", lesson.getId());
-                            startActivity(intent);
-                        });
-
-                        // Add swipe-to-delete functionality for lesson management
-                        // Trainers can swipe left or right on lesson cards to delete them
-                        ItemTouchHelper helper = new ItemTouchHelper(new ItemTouchHelper.SimpleCallback(
-                                // Drag disabled (0 means no drag directions allowed)
-                                0, ItemTouchHelper.LEFT | ItemTouchHelper.RIGHT) { // Swipe enabled in both directions
-
-                            @Override
-                            public boolean onMove(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder, @NonNull RecyclerView.ViewHolder target) {
-                                return false; // Drag functionality disabled
-                            }
-
-                            @Override
-                            public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
-                                // Get the position of the swiped item
-                                int position = viewHolder.getAdapterPosition();
-                                Lesson lessonToDelete = adapter.getLessonAt(position); //gets the lesson from the adapter
-
-                                // Delete lesson from database through ViewModel
-                                lessonViewModel.delete(lessonToDelete); //delete the lesson from view model
+        // Display welcome message with username
+        if (state.userName != null) {
+            tvUserName.setText("ברוך הבא: " + state.userName);
+        }
 
-                                // Show confirmation toast to user
-                                Toast.makeText(LessonsActivity.this, "השיעור "+lessonToDelete.getTitle()+" נמחק", Toast.LENGTH_SHORT).show();
-                            }
-                        });
-                        // Attach the swipe helper to the RecyclerView
-                        helper.attachToRecyclerView(recyclerview);
+        // Configure UI based on user role
+        if (previous == null || previous.isTrainer != state.isTrainer) {
+            setTrainerTools(state.isTrainer);
+        }
 
-                        // Setup FAB click to add new lessons
-                        fab.setOnClickListener(v -> {
-                            Intent intent = new Intent(LessonsActivity.this, AddLessonActivity.class);
-                            intent.putExtra("username", name); // Pass trainer name for lesson creation
-                            startActivity(intent);
-                        });
-                    }
+        // Find and select the tab of the level, selecting it again doesn't reload the list
+        for (int i = 0; i < tabLayout.getTabCount(); i++) {
+            TabLayout.Tab tab = tabLayout.getTabAt(i);
+            if (tab != null && tab.getTag() == state.selectedLevel) {
+                if (!tab.isSelected()) {
+                    tab.select();
                 }
-                // Always observe lessons after user is loaded
-                observeLessons();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Trainers can add lessons with the FAB, edit them with a long press and delete them with a swipe
+     * Trainees can only view and interact with lessons
+     */
+    private void setTrainerTools(boolean isTrainer) {
+        fab.setVisibility(isTrainer ? View.VISIBLE : View.GONE);
+        swipeToDeleteHelper.attachToRecyclerView(isTrainer ? recyclerview : null);
+        if (isTrainer) {
+            // Enable long click to edit lessons
+            adapter.setOnLongClickListener(lesson -> {
+                Intent intent = new Intent(LessonsActivity.this, AddLessonActivity.class);
+                intent.putExtra("lessonId", lesson.getId());
+                startActivity(intent);
             });
         } else {
-            // If no user found in preferences, just load lessons with default settings
-            observeLessons();
+            adapter.setOnLongClickListener(null);
         }
     }
 
     /**
-     * Observes all lessons from database and filters by selected tab or user level
-     * Handles initial tab selection and maintains current selection on data updates
+     * Swipe-to-delete for lesson management
+     * Trainers can swipe left or right on lesson cards to delete them
      */
-    private void observeLessons() {
-        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
-        lessonViewModel.getAllLessons().observe(this, lessons -> {
-            // Store all lessons for filtering purposes
-            allLessons = lessons;
+    private ItemTouchHelper createSwipeToDeleteHelper() {
+        return new ItemTouchHelper(new ItemTouchHelper.SimpleCallback(
+                // Drag disabled (0 means no drag directions allowed)
+                0, ItemTouchHelper.LEFT | ItemTouchHelper.RIGHT) { // Swipe enabled in both directions
 
-            if (isFirstLoad) { //if its the first time
-                // First time loading: set appropriate tab based on user level or settings intent
-                String level = userLevel;
-                Intent intent = getIntent();
+            @Override
+            public boolean onMove(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder, @NonNull RecyclerView.ViewHolder target) {
+                return false; // Drag functionality disabled
+            }
 
-                // Check if level was passed from Settings activity
-                if (intent != null && intent.hasExtra("level")) { //gets the level from settings
-                    level = intent.getStringExtra("level"); // בא מה־Settings
-                }
+            @Override
+            public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
+                // Get the position of the swiped item
+                int position = viewHolder.getAdapterPosition();
+                LessonCard lessonToDelete = adapter.getLessonAt(position); //gets the lesson from the adapter
+                if (lessonToDelete == null) return; // Page was dropped while scrolling
 
-                // Find and select the correct tab based on level
-                for (int i = 0; i < tabLayout.getTabCount(); i++) {
-                    TabLayout.Tab tab = tabLayout.getTabAt(i);
-                    if (tab != null && tab.getText() != null && tab.getText().toString().equals(level)) {
-                        tab.select();
-                        break;
-                    }
-                }
+                // Delete lesson from database through ViewModel
+                lessonViewModel.deleteById(lessonToDelete.getId()); //delete the lesson from view model
 
-                // Filter lessons by the selected level
-                filterLessonsByLevel(level);
-                isFirstLoad = false; // Prevent this logic from running again
-            } else { //the else is for times he just moves between lesson
-                // Subsequent loads: maintain current tab selection and re-filter
-                TabLayout.Tab selectedTab = tabLayout.getTabAt(tabLayout.getSelectedTabPosition());
-                if (selectedTab != null && selectedTab.getText() != null) {
-                    filterLessonsByLevel(selectedTab.getText().toString());
-                }
+                // Show confirmation toast to user
+                Toast.makeText(LessonsActivity.this, "השיעור "+lessonToDelete.getTitle()+" נמחק", Toast.LENGTH_SHORT).show();
             }
         });
     }
-
-    /**
-     * Filters lessons by difficulty level and updates the adapter
-     * Only shows lessons that match the specified difficulty level
-     * @param level The difficulty level to filter by (מתחילים/בינוני/מתקדמים)
-     */
-    private void filterLessonsByLevel(String level) {
-        List<Lesson> filtered = new ArrayList<>();
-
-        // Go through all lessons and add only those matching the level
-        for (Lesson lesson : allLessons) {
-            if (lesson.getLevel().equals(level)) {
-                filtered.add(lesson);
-            }
-        }
-
-        // Update adapter with filtered lesson list
-        adapter.setLessons(filtered);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.example.myproject;
+
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * One snapshot of what LessonsActivity shows around the lessons list
+ * Built by LessonViewModel from the user and the selected level, a new snapshot is only
+ * emitted when something in it changed. The lessons themselves come as pages of the selected level.
+ */
+public final class LessonsScreenState {
+
+    @Nullable
+    public final String userName; // null while there is no user
+    public final boolean isTrainer; // Trainers can add, edit and delete lessons
+    public final Level selectedLevel; // The level tab that is shown
+
+    LessonsScreenState(@Nullable String userName, boolean isTrainer, Level selectedLevel) {
+        this.userName = userName;
+        this.isTrainer = isTrainer;
+        this.selectedLevel = selectedLevel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LessonsScreenState)) return false;
+        LessonsScreenState other = (LessonsScreenState) o;
+        return isTrainer == other.isTrainer
+                && Objects.equals(userName, other.userName)
+                && Objects.equals(selectedLevel, other.selectedLevel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userName, isTrainer, selectedLevel);
+    }
+}
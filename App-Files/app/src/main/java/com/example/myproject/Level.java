@@ -0,0 +1,46 @@
+package com.example.myproject;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+
+//difficulty level of a lesson, and the level a user trains at - stored as its code
+public enum Level {
+    BEGINNER(1, R.string.level_beginner, "מתחילים"),
+    INTERMEDIATE(2, R.string.level_intermediate, "בינוני"),
+    ADVANCED(3, R.string.level_advanced, "מתקדמים");
+
+    public final int code; //the value in the database, never change it
+    @StringRes
+    public final int labelRes; //name shown to the user
+    final String legacyValue; //how it was stored before version 7, still read from old catalogs
+
+    Level(int code, @StringRes int labelRes, String legacyValue) {
+        this.code = code;
+        this.labelRes = labelRes;
+        this.legacyValue = legacyValue;
+    }
+
+    @Nullable
+    public static Level fromCode(@Nullable Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (Level level : values()) {
+            if (level.code == code) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    //reads the level of a catalog file - the name of the enum, or the Hebrew text of older catalogs
+    @Nullable
+    public static Level parse(@Nullable String value) {
+        for (Level level : values()) {
+            if (level.name().equals(value) || level.legacyValue.equals(value)) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
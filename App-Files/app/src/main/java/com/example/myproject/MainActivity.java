@@ -30,7 +30,6 @@ import android.widget.Toast;
 
 import com.google.android.material.button.MaterialButton;
 
-import java.util.concurrent.Future;
 
 /**
  * Main Activity for user registration and onboarding
@@ -165,47 +164,41 @@ public class MainActivity extends AppCompatActivity {
                     String name = etUserName.getText().toString(); //the userName
 
                     // Determine selected role based on button selection
-                    String role;
+                    Role role;
                     if (btnCoach.isSelected()) {
-                        role = "מאמן";  // Coach
+                        role = Role.TRAINER;  // Coach
                     } else {
-                        role = "מתאמן";  // Trainee
+                        role = Role.TRAINEE;  // Trainee
                     }
 
                     // Create new user object with entered data
                     User user = new User(name, role);
 
-                    // Insert user into database asynchronously and get future user ID
-                    Future<Long> futureUserId = userViewModel.insert(user);
-
-                    // Handle database operation in background thread to avoid blocking UI
-                    new Thread(()->{
-                        try {
-                            // Wait for database insertion to complete and retrieve user ID
-                            long userId = futureUserId.get();
-
-                            // Save user ID to shared preferences for future app sessions
-                            getSharedPreferences("my_prefs", MODE_PRIVATE)
-                                    .edit()
-                                    .putLong("userId", userId)
-                                    .apply();
-
-                            // Navigate to lessons activity on UI thread
-                            runOnUiThread(()->{
-                                //crate an intent, because we goes to another activity
-                                Intent intent = new Intent(MainActivity.this, com.example.myproject.LessonsActivity.class);
-                                //start the intent
-                                startActivity(intent);
-                                finish(); // Close registration activity
-                            });
-                        } catch (Exception e){
+                    // Insert user into database asynchronously, the callback gets the new user ID
+                    userViewModel.insert(user, userId->{
+                        if (userId == -1) {
                             // Handle any errors during user creation process
-                            e.printStackTrace();
                             runOnUiThread(()->{
                                 Toast.makeText(MainActivity.this, "שגיאה בשמירת המשתמש", Toast.LENGTH_LONG).show();
                             });
+                            return;
                         }
-                    }).start();
+
+                        // Save user ID to shared preferences for future app sessions
+                        getSharedPreferences("my_prefs", MODE_PRIVATE)
+                                .edit()
+                                .putLong("userId", userId)
+                                .apply();
+
+                        // Navigate to lessons activity on UI thread
+                        runOnUiThread(()->{
+                            //crate an intent, because we goes to another activity
+                            Intent intent = new Intent(MainActivity.this, com.example.myproject.LessonsActivity.class);
+                            //start the intent
+                            startActivity(intent);
+                            finish(); // Close registration activity
+                        });
+                    });
 
                 }
             }
@@ -0,0 +1,139 @@
+package com.example.myproject;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies a picked file (video, text, image) into the media store (LessonMediaStore), so the lesson
+ * keeps working after the original is deleted from the device.
+ * The store is content-addressed: the copy is hashed (SHA-256) while it streams and named by its hash,
+ * so picking the same file again, or for another lesson, keeps a single copy.
+ * The copy is written to a ".part" file that is renamed only when it is complete -
+ * a cancelled or failed copy never leaves a half file behind.
+ * The copy blocks, MediaIngestionViewModel runs it on a background thread.
+ */
+public class MediaIngestion {
+
+    static final long CHUNK_BYTES = 8L * 1024 * 1024; // Copied between two progress reports and cancel checks
+    private static final int BUFFER_BYTES = 256 * 1024; // Read, hashed and written at once
+
+    private final ContentResolver contentResolver;
+    private final File directory;
+
+    /**
+     * Gets told how far the copy is, after every chunk
+     */
+    public interface ProgressListener {
+        /**
+         * @param copied Bytes copied so far
+         * @param total Size of the source, -1 when the provider doesn't tell
+         */
+        void onProgress(long copied, long total);
+    }
+
+    public MediaIngestion(ContentResolver contentResolver, File directory) {
+        this.contentResolver = contentResolver;
+        this.directory = directory;
+    }
+
+    /**
+     * Copies the source into the store
+     * @param source content:// or file:// URI of the picked file
+     * @param extension Extension of the stored file
+     * @param cancelled Checked after every chunk, set it to stop the copy
+     * @param listener Gets the progress, on the copying thread
+     * @return The stored file, <hash>.<extension> - an existing one when the same content was stored before
+     * @throws CancellationException if cancelled was set, the partial copy is deleted
+     */
+    public File copy(Uri source, String extension, AtomicBoolean cancelled,
+                     ProgressListener listener) throws IOException {
+        try (ParcelFileDescriptor descriptor = contentResolver.openFileDescriptor(source, "r")) {
+            if (descriptor == null) {
+                throw new FileNotFoundException("No file behind " + source);
+            }
+            return copy(descriptor, source.toString(), extension, cancelled, listener);
+        }
+    }
+
+    /**
+     * Copies an open file into the store, like copy(Uri, ...)
+     * Providers may hand out a pipe, where a read can return less than asked (or nothing) long before
+     * the end, so the copy reads until the channel reports its end (-1), never by the bytes read.
+     * @param descriptor The source, read from its current position to its end - the caller closes it
+     * @param name Names the source in the exceptions
+     */
+    File copy(ParcelFileDescriptor descriptor, String name, String extension, AtomicBoolean cancelled,
+              ProgressListener listener) throws IOException {
+        MessageDigest digest = newDigest();
+        // Unique per copy, two copies of the same file may run at once
+        File part = new File(directory, "ingest_" + System.nanoTime() + "_" + Thread.currentThread().getId() + ".part");
+        try {
+            long total = descriptor.getStatSize(); // -1 for pipes and some providers
+            try (FileChannel in = new FileInputStream(descriptor.getFileDescriptor()).getChannel();
+                 FileChannel out = new FileOutputStream(part).getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+                long copied = 0;
+                long reported = 0;
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    copied += buffer.remaining();
+                    digest.update(buffer.duplicate()); // The hash is ready when the copy is
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                    if (copied - reported >= CHUNK_BYTES) {
+                        reported = copied;
+                        listener.onProgress(copied, total);
+                        if (cancelled.get()) {
+                            throw new CancellationException("Copy of " + name + " cancelled");
+                        }
+                    }
+                }
+                if (copied != reported) {
+                    listener.onProgress(copied, total);
+                }
+            }
+            File target = new File(directory, toHex(digest.digest()) + "." + extension);
+            if (target.exists()) {
+                part.delete(); // Stored before, keep the one copy
+                target.setLastModified(System.currentTimeMillis()); // Fresh again, the garbage collection waits for the save
+            } else if (!part.renameTo(target)) {
+                throw new IOException("Can't rename " + part + " to " + target);
+            }
+            return target;
+        } catch (IOException | RuntimeException e) {
+            part.delete(); // Nothing is left of a failed copy
+            throw e;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available on Android", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.myproject;
+
+import android.app.Application;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies the files picked in AddLessonActivity into the media store in the background
+ * One copy per kind of file can run at the same time, picking a file of the same kind again
+ * cancels the older copy. Images are also transcoded (ImageTranscoder), and videos get their poster
+ * frame and duration (VideoPosterExtractor), before the copy is done.
+ * Lives as long as the screen, so a copy goes on while the screen rotates,
+ * and is cancelled when the screen is closed.
+ */
+public class MediaIngestionViewModel extends AndroidViewModel {
+
+    private static final String TAG = "MediaIngestion";
+
+    /**
+     * The files of a lesson, with the extension the copy gets
+     */
+    public enum Kind {
+        VIDEO("mp4"),
+        TEXT("txt"),
+        IMAGE("jpg");
+
+        final String extension;
+
+        Kind(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Where one copy is
+     */
+    public static final class State {
+        public enum Status { COPYING, DONE, FAILED, CANCELLED }
+
+        public final Status status;
+        public final int percent; // 0-100 while copying, -1 when the size of the source is unknown
+        @Nullable
+        public final File file; // The copy, only when DONE
+        @Nullable
+        public final ImageTranscoder.Result images; // The card and detail sizes, only for an image that could be transcoded
+        @Nullable
+        public final VideoPosterExtractor.Result poster; // Poster and duration, only for a video that could be read
+
+        State(Status status, int percent, @Nullable File file) {
+            this(status, percent, file, null, null);
+        }
+
+        State(Status status, int percent, @Nullable File file, @Nullable ImageTranscoder.Result images,
+              @Nullable VideoPosterExtractor.Result poster) {
+            this.status = status;
+            this.percent = percent;
+            this.file = file;
+            this.images = images;
+            this.poster = poster;
+        }
+    }
+
+    private final MediaIngestion ingestion;
+    private final ImageTranscoder transcoder = new ImageTranscoder();
+    private final VideoPosterExtractor posterExtractor;
+    private final ExecutorService executor = Executors.newFixedThreadPool(Kind.values().length);
+    private final Map<Kind, MutableLiveData<State>> states = new EnumMap<>(Kind.class);
+    private final Map<Kind, AtomicBoolean> running = new EnumMap<>(Kind.class); // Cancel flag of the current copy
+    private final MediatorLiveData<Boolean> busy = new MediatorLiveData<>(); // true while any copy runs
+    private final Handler mainHandler = new Handler(Looper.getMainLooper()); // The states only change on the main thread
+
+    public MediaIngestionViewModel(@NonNull Application application) {
+        super(application);
+        ingestion = new MediaIngestion(application.getContentResolver(),
+                LessonMediaStore.getInstance(application).getDirectory());
+        posterExtractor = VideoPosterExtractor.getInstance(application);
+        busy.setValue(false);
+        for (Kind kind : Kind.values()) {
+            MutableLiveData<State> state = new MutableLiveData<>();
+            states.put(kind, state);
+            busy.addSource(state, s -> updateBusy());
+        }
+    }
+
+    //gets the state of the copy of this kind, null before the first pick
+    public LiveData<State> getState(Kind kind) {
+        return states.get(kind);
+    }
+
+    //true while a file is being copied, the lesson can't be saved then
+    public LiveData<Boolean> isBusy() {
+        return busy;
+    }
+
+    /**
+     * Starts copying a picked file, must be called on the main thread
+     * @param kind Which file of the lesson it is, an older copy of the same kind is cancelled
+     * @param source The picked file
+     */
+    public void ingest(Kind kind, Uri source) {
+        cancel(kind);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        running.put(kind, cancelled);
+        MutableLiveData<State> state = states.get(kind);
+        state.setValue(new State(State.Status.COPYING, 0, null));
+
+        executor.execute(() -> {
+            try {
+                int[] lastPercent = {0};
+                File file = ingestion.copy(source, kind.extension, cancelled, (copied, total) -> {
+                    int percent = total > 0 ? (int) (copied * 100 / total) : -1;
+                    if (percent != lastPercent[0]) { // Only post when the bar would move
+                        lastPercent[0] = percent;
+                        post(state, cancelled, new State(State.Status.COPYING, percent, null));
+                    }
+                });
+                ImageTranscoder.Result images = null;
+                VideoPosterExtractor.Result poster = null;
+                if (kind == Kind.IMAGE && !cancelled.get()) {
+                    images = transcode(file);
+                }
+                if (kind == Kind.VIDEO && !cancelled.get()) {
+                    poster = extractPoster(file);
+                }
+                post(state, cancelled, new State(State.Status.DONE, 100, file, images, poster));
+            } catch (CancellationException e) {
+                // A newer pick or cancel() already set the state
+            } catch (Exception e) {
+                Log.e(TAG, "Error copying " + source + ": " + e.getMessage());
+                post(state, cancelled, new State(State.Status.FAILED, 0, null));
+            }
+        });
+    }
+
+    //an image that can't be transcoded is still saved, the screens fall back to the original
+    @Nullable
+    private ImageTranscoder.Result transcode(File image) {
+        try {
+            return transcoder.transcode(image);
+        } catch (Exception e) {
+            Log.e(TAG, "Error transcoding " + image + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    //a video that can't be read is still saved, the backfill of VideoPosterExtractor tries it again
+    @Nullable
+    private VideoPosterExtractor.Result extractPoster(File video) {
+        try {
+            return posterExtractor.extract(Uri.fromFile(video).toString());
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading the poster of " + video + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    //stops the copy of this kind, if one runs
+    public void cancel(Kind kind) {
+        AtomicBoolean cancelled = running.remove(kind);
+        if (cancelled != null) {
+            cancelled.set(true);
+            MutableLiveData<State> state = states.get(kind);
+            if (state.getValue() != null && state.getValue().status == State.Status.COPYING) {
+                state.setValue(new State(State.Status.CANCELLED, 0, null));
+            }
+        }
+    }
+
+    //forgets a failed copy once the screen showed it, so a rotation doesn't show it again
+    public void clearFailure(Kind kind) {
+        MutableLiveData<State> state = states.get(kind);
+        if (state.getValue() != null && state.getValue().status == State.Status.FAILED) {
+            state.setValue(null);
+        }
+    }
+
+    //stops all the copies
+    public void cancelAll() {
+        for (Kind kind : Kind.values()) {
+            cancel(kind);
+        }
+    }
+
+    //a cancelled copy doesn't report anymore, its kind may already have a newer copy
+    //checked on the main thread, where cancel() runs, so a late report can't overwrite a newer state
+    private void post(MutableLiveData<State> state, AtomicBoolean cancelled, State value) {
+        mainHandler.post(() -> {
+            if (!cancelled.get()) {
+                state.setValue(value);
+            }
+        });
+    }
+
+    private void updateBusy() {
+        boolean copying = false;
+        for (MutableLiveData<State> state : states.values()) {
+            State s = state.getValue();
+            copying |= s != null && s.status == State.Status.COPYING;
+        }
+        if (busy.getValue() == null || busy.getValue() != copying) {
+            busy.setValue(copying);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        for (AtomicBoolean cancelled : running.values()) {
+            cancelled.set(true); // The partial files are deleted by the copies themselves
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        executor.shutdown();
+        super.onCleared();
+    }
+}
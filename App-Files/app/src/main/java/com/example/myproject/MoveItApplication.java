@@ -0,0 +1,32 @@
+package com.example.myproject;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+
+/**
+ * The application, owns what the screens share for the whole app run
+ * The playback engine is created on first use, so starting the app doesn't pay for the players and the cache.
+ */
+public class MoveItApplication extends Application {
+
+    private LessonPlaybackEngine playbackEngine;
+
+    //the players of the lesson videos, only on the main thread
+    public LessonPlaybackEngine getPlaybackEngine() {
+        if (playbackEngine == null) {
+            playbackEngine = new LessonPlaybackEngine(this);
+        }
+        return playbackEngine;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (playbackEngine != null) {
+            playbackEngine.trimMemory(level); // The idle players hold codecs and buffers
+        }
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            AppRoomDatabase.getScheduler().logStats(); // How the DB lanes did while the app was in use
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the resource names stored in lesson rows (imageUrl, videoUrl, textFileUrl) to resource ids
+ * Each name is looked up with getIdentifier() only once per app run and then served from memory.
+ * The ids are not saved in the database, because they can change between builds of the app.
+ */
+public final class ResourceRegistry {
+
+    private static final String TAG = "ResourceRegistry";
+    private static final String TYPE_DRAWABLE = "drawable";
+    private static final String TYPE_RAW = "raw";
+
+    // "type/name" -> resource id, 0 is kept too so a missing name isn't looked up again
+    private static final Map<String, Integer> resolvedIds = new ConcurrentHashMap<>();
+
+    private ResourceRegistry() {
+    }
+
+    /**
+     * Gets the id of a drawable by its name, e.g. "abs_pic"
+     * @param context Any context of the app
+     * @param name The drawable name stored in the lesson
+     * @return The resource id, or 0 if there is no such drawable
+     */
+    public static int getDrawableId(Context context, String name) {
+        return resolve(context, TYPE_DRAWABLE, name);
+    }
+
+    /**
+     * Gets the id of a raw resource by its name, e.g. "abs_video"
+     * @param context Any context of the app
+     * @param name The raw resource name stored in the lesson
+     * @return The resource id, or 0 if there is no such raw resource
+     */
+    public static int getRawId(Context context, String name) {
+        return resolve(context, TYPE_RAW, name);
+    }
+
+    /**
+     * Gets the URI of a lesson video as stored in the lesson: a URI, a path, or the name of a raw resource
+     * @param context Any context of the app
+     * @param videoUrl The videoUrl of the lesson
+     * @return A file://, android.resource:// or the stored URI
+     */
+    public static Uri getVideoUri(Context context, String videoUrl) {
+        if (videoUrl.startsWith("/")) {
+            return Uri.fromFile(new File(videoUrl));
+        }
+        if (!videoUrl.contains("/")) {
+            // Built in lessons may keep only the name of their raw video
+            return Uri.parse("android.resource://" + context.getPackageName() + "/" + getRawId(context, videoUrl));
+        }
+        return Uri.parse(videoUrl);
+    }
+
+    private static int resolve(Context context, String type, String name) {
+        String key = type + "/" + name;
+        Integer cached = resolvedIds.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Context appContext = context.getApplicationContext();
+        int id = appContext.getResources().getIdentifier(name, type, appContext.getPackageName());
+        if (id == 0) {
+            Log.e(TAG, "Resource not found: " + key);
+        }
+        resolvedIds.put(key, id);
+        return id;
+    }
+}
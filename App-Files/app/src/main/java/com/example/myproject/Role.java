@@ -0,0 +1,32 @@
+package com.example.myproject;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+
+//role of a user - trainers can add, edit and delete lessons - stored as its code
+public enum Role {
+    TRAINER(1, R.string.role_trainer),
+    TRAINEE(2, R.string.role_trainee);
+
+    public final int code; //the value in the database, never change it
+    @StringRes
+    public final int labelRes; //name shown to the user
+
+    Role(int code, @StringRes int labelRes) {
+        this.code = code;
+        this.labelRes = labelRes;
+    }
+
+    @Nullable
+    public static Role fromCode(@Nullable Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (Role role : values()) {
+            if (role.code == code) {
+                return role;
+            }
+        }
+        return null;
+    }
+}
@@ -15,6 +15,8 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.google.android.material.button.MaterialButton;
 
+import java.util.Objects;
+
 /**
  * Settings Activity for user profile management
  * Allows users to update their personal information including:
@@ -76,8 +78,7 @@ public class SettingsActivity extends AppCompatActivity {
                         currentUser = user;
 
                         // Set role selection based on current user role
-                        String role = currentUser.getRole();
-                        if (role.equals("מתאמן")){ // If user is trainee
+                        if (currentUser.getRole() == Role.TRAINEE){ // If user is trainee
                             btnTrainee.setSelected(true);
                             btnCoach.setSelected(false);
                         }
@@ -168,33 +169,28 @@ public class SettingsActivity extends AppCompatActivity {
             // All validations passed - proceed with user update
             if (currentUser == null) return;
 
-            // Update phone number if provided
-            if (!phoneStr.isEmpty()) {
-                currentUser.setPhone(phoneStr);
-            }
+            // Phone number and age only change if provided
+            String phone = phoneStr.isEmpty() ? currentUser.getPhone() : phoneStr;
+            Integer age = ageStr.isEmpty() ? currentUser.getAge() : Integer.valueOf(ageStr);
 
-            // Update age if provided
-            if (!ageStr.isEmpty()) {
-                currentUser.setAge(Integer.parseInt(ageStr));
-            }
+            // Level and gender from spinner selections
+            //the spinners list the levels and genders in the order of their enums
+            Level level = Level.values()[spnLevel.getSelectedItemPosition()];
+            Gender gender = Gender.values()[spnGender.getSelectedItemPosition()];
 
-            // Update level and gender from spinner selections
-            currentUser.setLevel(spnLevel.getSelectedItem().toString());
-            currentUser.setGender(spnGender.getSelectedItem().toString());
+            // Role based on button selection
+            Role role = btnCoach.isSelected() ? Role.TRAINER : Role.TRAINEE;
 
-            // Update role based on button selection
-            if (btnCoach.isSelected()) {
-                currentUser.setRole("מאמן"); // Coach
-            } else {
-                currentUser.setRole("מתאמן"); // Trainee
+            // Write only the profile fields, and only if one of them changed
+            // (runs on the DB write lane, not the UI thread)
+            if (role != currentUser.getRole() || level != currentUser.getLevel() || gender != currentUser.getGender()
+                    || !Objects.equals(phone, currentUser.getPhone()) || !Objects.equals(age, currentUser.getAge())) {
+                userViewModel.updateProfile(currentUser.getId(), role, level, phone, age, gender);
             }
 
-            // Update user in database on background thread to avoid blocking UI
-            new Thread(() -> userViewModel.update(currentUser)).start();
-
             // Navigate back to lessons activity with updated level preference
             Intent intent = new Intent(SettingsActivity.this, LessonsActivity.class);
-            intent.putExtra("level", spnLevel.getSelectedItem().toString()); // Pass selected level
+            intent.putExtra("level", level); // Pass selected level
             startActivity(intent);
             finish(); // Close settings activity
 
@@ -204,16 +200,12 @@ public class SettingsActivity extends AppCompatActivity {
     /**
      * Helper method to set spinner selection to match a specific value
      * Used when loading existing user data into spinner components
-     * @param spinner The spinner component to set selection for
+     * @param spinner The spinner component to set selection for, its items are in the order of the enum
      * @param value The value to select in the spinner
      */
-    private void setSpinnerSelection(Spinner spinner, String value){
-        // Loop through all spinner items to find matching value
-        for (int i = 0; i<spinner.getCount(); i++){
-            if (spinner.getItemAtPosition(i).toString().equals(value)){
-                spinner.setSelection(i); // Set selection to matching item
-                break; // Exit loop once match is found
-            }
+    private void setSpinnerSelection(Spinner spinner, Enum<?> value){
+        if (value.ordinal() < spinner.getCount()){
+            spinner.setSelection(value.ordinal()); // Set selection to matching item
         }
     }
 }
@@ -6,6 +6,7 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -17,11 +18,22 @@ import com.airbnb.lottie.LottieAnimationView;
  * Features:
  * - Displays Lottie animation during app loading
  * - Checks for existing user session in SharedPreferences
- * - Routes users to appropriate activity (registration or lessons)
- * - Provides smooth transition with 2-second delay
+ * - Opens the database and checks that the saved user still exists
+ * - Routes users to appropriate activity (registration or lessons) as soon as that work is done,
+ *   but not before a short minimum display time so the animation doesn't just flash
+ * - Records the time of every startup phase in StartupTimings
  */
 public class SplashActivity extends AppCompatActivity {
 
+    private static final long MIN_DISPLAY_MS = 600; // Shortest time the splash is shown
+    private static final long MAX_WAIT_MS = 3000; // Move on even if the database is stuck
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private long shownAt; // When the splash was created
+    private int pendingWork; // Startup tasks that haven't finished, only touched on the main thread
+    private boolean navigated = false; // Makes sure we leave the splash only once
+    private long userId;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         // Configure status bar appearance for Android M and above
@@ -31,6 +43,8 @@ public class SplashActivity extends AppCompatActivity {
         }
 
         super.onCreate(savedInstanceState);
+        shownAt = SystemClock.elapsedRealtime();
+        StartupTimings.mark("splash_created");
 
         // Hide the default action bar for clean splash screen appearance
         if (getSupportActionBar() != null) {
@@ -44,26 +58,104 @@ public class SplashActivity extends AppCompatActivity {
         // Enable merge paths for better performance on KitKat and above
         animationView.enableMergePathsForKitKatAndAbove(true);
 
-        // Set up delayed navigation logic after 2 seconds
-        // Uses Handler to post delayed action on main UI thread
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            // Check SharedPreferences for existing user session
-            SharedPreferences prefs = getSharedPreferences("my_prefs", MODE_PRIVATE);
-            long userId = prefs.getLong("userId", -1); // Get saved user ID, default to -1 if not found
-
-            Intent intent;
-            // Route user based on whether they have an existing session
-            if (userId == -1) { //no user
-                // No existing user found - navigate to registration
-                intent = new Intent(SplashActivity.this, MainActivity.class);
-            } else { //there is a user
-                // Existing user found - navigate directly to lessons
-                intent = new Intent(SplashActivity.this, LessonsActivity.class);
+        // Check SharedPreferences for existing user session
+        SharedPreferences prefs = getSharedPreferences("my_prefs", MODE_PRIVATE);
+        userId = prefs.getLong("userId", -1); // Get saved user ID, default to -1 if not found
+
+        startWork();
+
+        // Don't keep the user on the splash if opening the database hangs
+        handler.postDelayed(this::navigate, MAX_WAIT_MS);
+    }
+
+    /**
+     * Opens the database, then checks the saved user row
+     * A new user has nothing to check, only the database is opened for the registration screen
+     */
+    private void startWork() {
+        DatabaseScheduler scheduler = AppRoomDatabase.getScheduler();
+        pendingWork = userId == -1 ? 1 : 2; // Opening the DB, plus the user check for a known user
+
+        scheduler.read(() -> {
+            AppRoomDatabase db = AppRoomDatabase.getDatabase(getApplication());
+            // Forces Room to open the file (and copy the prepackaged DB on the first start)
+            db.getOpenHelper().getWritableDatabase();
+            StartupTimings.mark("db_open");
+
+            if (userId != -1) {
+                long savedUserId = userId;
+                scheduler.read(() -> {
+                    boolean exists = db.userDao().getUserByIdNow(savedUserId) != null;
+                    StartupTimings.mark("user_checked");
+                    handler.post(() -> {
+                        if (!exists) {
+                            onUserMissing();
+                        }
+                        onWorkDone();
+                    });
+                });
             }
+            handler.post(this::onWorkDone);
+        });
+    }
 
-            // Start the appropriate activity and close splash screen
-            startActivity(intent);
-            finish(); // Close splash activity to prevent back navigation
-        }, 2000); // 2-second delay for splash screen display
+    /**
+     * The saved user isn't in the database anymore (e.g. the app data was restored without it)
+     * Forgets the id and sends the user to registration, nothing can be saved for a missing user
+     */
+    private void onUserMissing() {
+        userId = -1;
+        getSharedPreferences("my_prefs", MODE_PRIVATE).edit().remove("userId").apply();
+    }
+
+    /**
+     * Called on the main thread when a startup task finished
+     * Once all are done, leaves the splash when the minimum display time has passed
+     */
+    private void onWorkDone() {
+        if (isFinishing() || isDestroyed()) {
+            return; // Left already (timeout or back), the task finished too late
+        }
+        pendingWork--;
+        if (pendingWork > 0) {
+            return;
+        }
+        StartupTimings.mark("ready");
+        long shownFor = SystemClock.elapsedRealtime() - shownAt;
+        handler.postDelayed(this::navigate, Math.max(0, MIN_DISPLAY_MS - shownFor));
+    }
+
+    /**
+     * Moves to the lessons screen for an existing user, otherwise to registration
+     */
+    private void navigate() {
+        if (navigated || isFinishing() || isDestroyed()) {
+            return;
+        }
+        navigated = true;
+        handler.removeCallbacksAndMessages(null);
+
+        Intent intent;
+        // Route user based on whether they have an existing session
+        if (userId == -1) { //no user
+            // No existing user found - navigate to registration
+            intent = new Intent(SplashActivity.this, MainActivity.class);
+        } else { //there is a user
+            // Existing user found - navigate directly to lessons
+            intent = new Intent(SplashActivity.this, LessonsActivity.class);
+        }
+
+        StartupTimings.mark("navigate");
+        StartupTimings.log();
+
+        // Start the appropriate activity and close splash screen
+        startActivity(intent);
+        finish(); // Close splash activity to prevent back navigation
+    }
+
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.example.myproject;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each phase of the app startup took, counted from the process start
+ * SplashActivity marks its phases here and writes them to the log (tag "StartupTimings")
+ * once it moves on to the next screen.
+ */
+public final class StartupTimings {
+
+    private static final String TAG = "StartupTimings";
+
+    // phase name -> ms since the process started, in the order the phases were marked
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private StartupTimings() {
+    }
+
+    /**
+     * Marks that a phase finished now, can be called from any thread
+     * @param phase Name of the phase, e.g. "db_open"
+     */
+    public static synchronized void mark(String phase) {
+        long sinceProcessStart = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        phases.put(phase, sinceProcessStart);
+    }
+
+    /**
+     * Gets a copy of the phases marked so far
+     * @return phase name -> ms since the process started
+     */
+    public static synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    // Writes all the phases marked so far to the log
+    public static synchronized void log() {
+        StringBuilder sb = new StringBuilder("startup:");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            sb.append(' ').append(phase.getKey()).append('=').append(phase.getValue()).append("ms");
+        }
+        Log.i(TAG, sb.toString());
+    }
+}
@@ -21,10 +21,10 @@ public class User {
 
     @NonNull
     @ColumnInfo(name = "role") //Trainer/trainee
-    private String role;
+    private Role role;
 
     @ColumnInfo(name = "level")
-    private String level;
+    private Level level;
 
     @ColumnInfo(name="phone")
     private String phone;
@@ -33,10 +33,10 @@ public class User {
     private Integer age;
 
     @ColumnInfo(name = "gender")
-    private String gender;
+    private Gender gender;
 
     //constructor
-    public User(@NonNull String username, @NonNull String role) {
+    public User(@NonNull String username, @NonNull Role role) {
         this.username = username;
         this.role = role;
         this.level=null;
@@ -56,11 +56,11 @@ public class User {
     }
 
     @NonNull
-    public String getRole() {
+    public Role getRole() {
         return role;
     }
 
-    public void setRole(@NonNull String role) {
+    public void setRole(@NonNull Role role) {
         this.role = role;
     }
 
@@ -80,19 +80,19 @@ public class User {
         this.age = age;
     }
 
-    public String getGender() {
+    public Gender getGender() {
         return gender;
     }
 
-    public void setGender(String gender) {
+    public void setGender(Gender gender) {
         this.gender = gender;
     }
 
-    public String getLevel() {
+    public Level getLevel() {
         return level;
     }
 
-    public void setLevel(String level) {
+    public void setLevel(Level level) {
         this.level = level;
     }
 
@@ -26,6 +26,10 @@ public interface UserDao {
     @Query("SELECT * FROM user_table WHERE id = :id")
     LiveData<User> getUserById(long id);
 
+    //the user right away, for background code that can't observe LiveData
+    @Query("SELECT * FROM user_table WHERE id = :id")
+    User getUserByIdNow(long id);
+
     @Query("SELECT * FROM user_table")
     LiveData<List<User>> getAllUsers();
 
@@ -36,6 +40,11 @@ public interface UserDao {
     @Update
     void update(User user);
 
+    //writes only the fields of the settings screen, the username stays as it is
+    @Query("UPDATE user_table SET role = :role, level = :level, phone = :phone, age = :age, gender = :gender"
+            + " WHERE id = :id")
+    void updateProfile(long id, Role role, Level level, String phone, Integer age, Gender gender);
+
     @Delete
     void delete(User user);
 }
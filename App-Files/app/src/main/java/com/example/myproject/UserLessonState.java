@@ -0,0 +1,56 @@
+package com.example.myproject;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+//the progress and favorites of one user in one lesson, a row only exists once the user changed something
+//removed together with its user or lesson
+@Entity(tableName = "user_lesson_state",
+        primaryKeys = {"userId", "lessonId"},
+        foreignKeys = {
+                @ForeignKey(entity = User.class, parentColumns = "id", childColumns = "userId",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = Lesson.class, parentColumns = "id", childColumns = "lessonId",
+                        onDelete = ForeignKey.CASCADE)
+        },
+        indices = {@Index("lessonId")}) //deleting a lesson finds its rows without a full scan
+public class UserLessonState {
+
+    @ColumnInfo(name = "userId")
+    private final long userId;
+
+    @ColumnInfo(name = "lessonId")
+    private final long lessonId;
+
+    //the user marked the lesson as done
+    @ColumnInfo(name = "isRegistered")
+    private final boolean isRegistered;
+
+    @ColumnInfo(name = "isFavorites")
+    private final boolean isFavorites;
+
+    public UserLessonState(long userId, long lessonId, boolean isRegistered, boolean isFavorites) {
+        this.userId = userId;
+        this.lessonId = lessonId;
+        this.isRegistered = isRegistered;
+        this.isFavorites = isFavorites;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getLessonId() {
+        return lessonId;
+    }
+
+    public boolean isRegistered() {
+        return isRegistered;
+    }
+
+    public boolean isFavorites() {
+        return isFavorites;
+    }
+}
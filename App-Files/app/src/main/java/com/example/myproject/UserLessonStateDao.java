@@ -0,0 +1,47 @@
+package com.example.myproject;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+/**
+ * Per-user favorites and progress (user_lesson_state)
+ * Every change writes one column of one row: the row is created empty if it's missing,
+ * then only the changed flag is updated, so a toggle never rewrites the lesson or the other flag.
+ */
+@Dao
+public interface UserLessonStateDao {
+
+    //the state of the user in the lesson, null while the user never changed anything in it
+    @Query("SELECT * FROM user_lesson_state WHERE userId = :userId AND lessonId = :lessonId")
+    LiveData<UserLessonState> getState(long userId, long lessonId);
+
+    //the state right away, for background code and tests
+    @Query("SELECT * FROM user_lesson_state WHERE userId = :userId AND lessonId = :lessonId")
+    UserLessonState getStateNow(long userId, long lessonId);
+
+    @Query("INSERT OR IGNORE INTO user_lesson_state (userId, lessonId, isRegistered, isFavorites)"
+            + " VALUES (:userId, :lessonId, 0, 0)")
+    void insertIfMissing(long userId, long lessonId);
+
+    @Query("UPDATE user_lesson_state SET isFavorites = :isFavorites WHERE userId = :userId AND lessonId = :lessonId")
+    void updateFavorite(long userId, long lessonId, boolean isFavorites);
+
+    @Query("UPDATE user_lesson_state SET isRegistered = :isRegistered WHERE userId = :userId AND lessonId = :lessonId")
+    void updateRegistered(long userId, long lessonId, boolean isRegistered);
+
+    //marks the lesson as a favorite of the user or not
+    @Transaction
+    default void setFavorite(long userId, long lessonId, boolean isFavorites) {
+        insertIfMissing(userId, lessonId);
+        updateFavorite(userId, lessonId, isFavorites);
+    }
+
+    //marks the lesson as done by the user or not
+    @Transaction
+    default void setRegistered(long userId, long lessonId, boolean isRegistered) {
+        insertIfMissing(userId, lessonId);
+        updateRegistered(userId, lessonId, isRegistered);
+    }
+}
@@ -1,18 +1,19 @@
 package com.example.myproject;
 
 import android.app.Application;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
 
 public class UserRepository {
+    private static final String TAG = "UserRepository";
     private final UserDao userDao;     // Data Access Object for the User table
     private final LiveData<List<User>> allUsers;    // LiveData list of all users from the database
-    private final ExecutorService executorService;     // Executor to run database operations off the main thread
+    private final DatabaseScheduler scheduler; // Shared scheduler that runs database operations off the main thread
 
 
     // Constructor receives Application to initialize the database and DAO
@@ -20,7 +21,7 @@ public class UserRepository {
         AppRoomDatabase db = AppRoomDatabase.getDatabase(application); // Get the singleton instance of the Room database
         userDao = db.userDao(); // Initialize the DAO
         allUsers = userDao.getAllUsers(); // Get LiveData of all users
-        executorService = Executors.newSingleThreadExecutor(); // Set up a background thread for database operations
+        scheduler = AppRoomDatabase.getScheduler(); // Writes run one by one on its write lane
     }
 
     // Returns LiveData so the UI can observe the user list for changes
@@ -28,8 +29,19 @@ public class UserRepository {
         return allUsers;
     }
 
-    public Future<Long> insert(User user) {
-        return AppRoomDatabase.databaseWriteExecutor.submit(() -> userDao.insert(user));
+    // Inserts a user (runs in background), then gives its new id to onInserted on the write thread
+    // onInserted gets -1 when the insert failed
+    public void insert(User user, LongConsumer onInserted) {
+        scheduler.write(() -> {
+            long userId;
+            try {
+                userId = userDao.insert(user);
+            } catch (SQLiteException e) {
+                Log.e(TAG, "Error inserting user: " + e.getMessage());
+                userId = -1;
+            }
+            onInserted.accept(userId);
+        });
     }
 
     public LiveData<User> getUserById(long id){
@@ -39,17 +51,22 @@ public class UserRepository {
 
     // Updates a user in the database (runs in background)
     public void update(User user){
-        executorService.execute(()->userDao.update(user));
+        scheduler.write(()->userDao.update(user));
+    }
+
+    // Updates only the settings fields of a user (runs in background)
+    public void updateProfile(long id, Role role, Level level, String phone, Integer age, Gender gender){
+        scheduler.write(()->userDao.updateProfile(id, role, level, phone, age, gender));
     }
 
     // Deletes a specific user from the database (runs in background)
     public void delete(User user){
-        executorService.execute(()->userDao.delete(user));
+        scheduler.write(()->userDao.delete(user));
     }
 
     // Deletes all users from the table (runs in background)
     public void deleteAll(){
-        executorService.execute(userDao::deleteAll);
+        scheduler.write(userDao::deleteAll);
     }
 
 
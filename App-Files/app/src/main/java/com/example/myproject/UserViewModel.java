@@ -8,7 +8,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
 
 public class UserViewModel extends AndroidViewModel {
 
@@ -27,8 +27,8 @@ public class UserViewModel extends AndroidViewModel {
         return allUsers;
     }
 
-    public Future<Long> insert(User user) {
-        return repository.insert(user);
+    public void insert(User user, LongConsumer onInserted) {
+        repository.insert(user, onInserted);
     }
     public LiveData<User> getUserById(long id){
         return repository.getUserById(id);
@@ -39,6 +39,11 @@ public class UserViewModel extends AndroidViewModel {
         repository.update(user);
     }
 
+    //update only the settings of the user, not the whole row
+    public void updateProfile(long id, Role role, Level level, String phone, Integer age, Gender gender){
+        repository.updateProfile(id, role, level, phone, age, gender);
+    }
+
     //delete specific user
     public void delete(User user){
         repository.delete(user);
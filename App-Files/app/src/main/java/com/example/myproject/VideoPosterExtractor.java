@@ -0,0 +1,216 @@
+package com.example.myproject;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes a poster frame and the duration of a lesson video (MediaMetadataRetriever), so the lesson
+ * screens can show the poster right away and start the video decoder only when the user plays it.
+ * A picked video is read by MediaIngestionViewModel right after its copy. Lessons that came another
+ * way (built in, older versions) are filled by a backfill when the extractor is created, imported
+ * ones by requestBackfill, and a single saved lesson by requestPoster.
+ * The poster is a WebP in the media store, named after the video url, so it is shared like the video.
+ */
+public class VideoPosterExtractor {
+
+    private static final String TAG = "VideoPosterExtractor";
+    static final int POSTER_MAX_PIXELS = 960; // Longest side, the lesson screen shows it 240dp high
+    private static final int POSTER_QUALITY = 80;
+    private static final long FRAME_TIME_US = 1_000_000; // A second in, the first frame is often black
+    private static final int BATCH_SIZE = 20; // Lessons read from the DB at once
+    static final long UNREADABLE = -1; // durationMs of a lesson whose video can't be read, so it isn't retried
+
+    private static volatile VideoPosterExtractor INSTANCE;
+
+    private final Context appContext;
+    private final File directory;
+    private final LessonDao lessonDao;
+    private final DatabaseScheduler scheduler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(); // Reads the videos, one at a time
+    private final AtomicBoolean pending = new AtomicBoolean(false); // A backfill is queued and hasn't started
+
+    /**
+     * The poster and duration of one video
+     */
+    public static final class Result {
+        @Nullable
+        public final File poster; // null when no frame could be decoded
+        public final long durationMs;
+
+        Result(@Nullable File poster, long durationMs) {
+            this.poster = poster;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private VideoPosterExtractor(Context context) {
+        appContext = context.getApplicationContext();
+        directory = LessonMediaStore.getInstance(appContext).getDirectory();
+        lessonDao = AppRoomDatabase.getDatabase(appContext).lessonDao();
+        scheduler = AppRoomDatabase.getScheduler();
+    }
+
+    //if its null, create the extractor
+    public static VideoPosterExtractor getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (VideoPosterExtractor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new VideoPosterExtractor(context);
+                    INSTANCE.requestBackfill(); // The built in lessons and the lessons of older versions
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Reads the duration and saves the poster frame of a video, blocks - call it off the main thread
+     * A poster saved before for the same url is reused.
+     * @param videoUrl The video as stored in the lesson - a raw resource name or a URI
+     * @throws IOException if the video can't be read
+     */
+    public Result extract(String videoUrl) throws IOException {
+        File poster = new File(directory, "poster_" + hashUrl(videoUrl) + ".webp");
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(appContext, ResourceRegistry.getVideoUri(appContext, videoUrl));
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            long durationMs = duration != null ? Long.parseLong(duration) : 0;
+
+            if (poster.exists()) {
+                poster.setLastModified(System.currentTimeMillis()); // Fresh again for the media sweep
+                return new Result(poster, durationMs);
+            }
+            long frameTimeUs = Math.min(FRAME_TIME_US, durationMs * 1000 / 2);
+            Bitmap frame = retriever.getScaledFrameAtTime(frameTimeUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC,
+                    POSTER_MAX_PIXELS, POSTER_MAX_PIXELS);
+            if (frame == null) {
+                return new Result(null, durationMs); // Audio only, or a codec the device can't decode
+            }
+            save(frame, poster);
+            return new Result(poster, durationMs);
+        } catch (RuntimeException e) {
+            throw new IOException("Can't read " + videoUrl, e); // setDataSource throws IllegalArgumentException
+        } finally {
+            retriever.release();
+        }
+    }
+
+    /**
+     * Reads the poster and duration of every lesson that has none yet, in the background
+     * It runs once at startup, call it again after many lessons were added without one.
+     * Extra calls while it is queued are merged.
+     */
+    public void requestBackfill() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(this::backfill);
+        }
+    }
+
+    /**
+     * Reads the poster and duration of one saved lesson, in the background
+     * For a lesson saved without them, e.g. its video was changed but not read by MediaIngestionViewModel.
+     * @param lessonId The lesson
+     * @param videoUrl Its video, the result isn't saved if the lesson has another one by then
+     */
+    public void requestPoster(long lessonId, String videoUrl) {
+        executor.execute(() -> {
+            try {
+                fill(lessonId, videoUrl);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                Log.e(TAG, "Error reading the lesson poster: " + e.getMessage());
+            }
+        });
+    }
+
+    private void backfill() {
+        pending.set(false); // Changes from now on need another pass
+        try {
+            List<Lesson> lessons;
+            int filled = 0;
+            while (!(lessons = scheduler.submitRead(() -> lessonDao.getLessonsWithoutPoster(BATCH_SIZE)).get()).isEmpty()) {
+                for (Lesson lesson : lessons) {
+                    fill(lesson.getId(), lesson.getVideoUrl());
+                }
+                filled += lessons.size();
+            }
+            if (filled > 0) {
+                Log.i(TAG, "Read the posters of " + filled + " lessons");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading lesson posters: " + e.getMessage());
+        }
+    }
+
+    //reads the video of one lesson and saves the result, blocks - runs on the extractor's thread
+    private void fill(long lessonId, String videoUrl) throws Exception {
+        String posterUrl = null;
+        long durationMs = UNREADABLE;
+        try {
+            Result result = extract(videoUrl);
+            posterUrl = result.poster != null ? Uri.fromFile(result.poster).toString() : null;
+            durationMs = result.durationMs;
+        } catch (IOException e) {
+            Log.w(TAG, e.getMessage());
+        }
+        String finalPosterUrl = posterUrl;
+        long finalDurationMs = durationMs;
+        // Waits for the write, so the next batch of the backfill doesn't return this lesson again
+        scheduler.submitWrite(() -> {
+            lessonDao.setPoster(lessonId, videoUrl, finalPosterUrl, finalDurationMs);
+            return null;
+        }).get();
+    }
+
+    private void save(Bitmap frame, File poster) throws IOException {
+        File part = new File(directory, poster.getName() + ".part");
+        try (OutputStream out = new FileOutputStream(part)) {
+            if (!frame.compress(Bitmap.CompressFormat.WEBP_LOSSY, POSTER_QUALITY, out)) {
+                throw new IOException("Can't encode the poster " + poster);
+            }
+        } catch (IOException e) {
+            part.delete();
+            throw e;
+        } finally {
+            frame.recycle();
+        }
+        // Rename at the end so a half written poster is never read
+        if (!part.renameTo(poster)) {
+            part.delete();
+            throw new IOException("Can't rename " + part + " to " + poster);
+        }
+    }
+
+    private static String hashUrl(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 16; i++) { // 128 bits are plenty to tell the videos of a device apart
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Schema of the prepackaged database, must match the Room entities of AppRoomDatabase exactly
+-- (Room validates it when the asset is first copied). Update it together with every new version.
+CREATE TABLE IF NOT EXISTS `user_table` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `username` TEXT NOT NULL, `role` INTEGER NOT NULL, `level` INTEGER, `phone` TEXT, `age` INTEGER, `gender` INTEGER);
+
+CREATE TABLE IF NOT EXISTS `lesson_table` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `title` TEXT NOT NULL, `imageUrl` TEXT NOT NULL, `description` TEXT NOT NULL, `videoUrl` TEXT NOT NULL, `textFileUrl` TEXT NOT NULL, `level` INTEGER NOT NULL, `trainerName` TEXT NOT NULL, `thumbnailUrl` TEXT, `detailImageUrl` TEXT, `posterUrl` TEXT, `durationMs` INTEGER);
+CREATE INDEX IF NOT EXISTS `index_lesson_table_level` ON `lesson_table` (`level`);
+CREATE INDEX IF NOT EXISTS `index_lesson_table_trainerName` ON `lesson_table` (`trainerName`);
+
+CREATE TABLE IF NOT EXISTS `user_lesson_state` (`userId` INTEGER NOT NULL, `lessonId` INTEGER NOT NULL, `isRegistered` INTEGER NOT NULL, `isFavorites` INTEGER NOT NULL, PRIMARY KEY(`userId`, `lessonId`), FOREIGN KEY(`userId`) REFERENCES `user_table`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , FOREIGN KEY(`lessonId`) REFERENCES `lesson_table`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE );
+CREATE INDEX IF NOT EXISTS `index_user_lesson_state_lessonId` ON `user_lesson_state` (`lessonId`);
+
+-- Full-text search index (LessonFts) and the triggers that keep it in sync with lesson_table.
+-- Triggers end with END; on its own line, the build splits statements there.
+CREATE VIRTUAL TABLE IF NOT EXISTS `lesson_fts` USING FTS4(`title` TEXT NOT NULL, `description` TEXT NOT NULL, `body` TEXT NOT NULL, `bodyUrl` TEXT, tokenize=unicode61, notindexed=`bodyUrl`);
+CREATE TRIGGER IF NOT EXISTS lesson_fts_insert AFTER INSERT ON lesson_table BEGIN
+    INSERT INTO lesson_fts(rowid, title, description, body, bodyUrl) VALUES (new.id, new.title, new.description, '', NULL);
+END;
+CREATE TRIGGER IF NOT EXISTS lesson_fts_update AFTER UPDATE OF title, description ON lesson_table
+WHEN old.title IS NOT new.title OR old.description IS NOT new.description BEGIN
+    UPDATE lesson_fts SET title = new.title, description = new.description WHERE rowid = new.id;
+END;
+CREATE TRIGGER IF NOT EXISTS lesson_fts_delete AFTER DELETE ON lesson_table BEGIN
+    DELETE FROM lesson_fts WHERE rowid = old.id;
+END;
+
+-- AppRoomDatabase version
+PRAGMA user_version = 11;
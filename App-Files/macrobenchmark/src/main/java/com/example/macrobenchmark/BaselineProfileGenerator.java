@@ -0,0 +1,39 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the Baseline Profile of the app from the measured journeys:
+ * start, scrolling the lessons list and opening a lesson.
+ * Needs a rooted device or an emulator without Google Play. Run
+ * ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.example.macrobenchmark.BaselineProfileGenerator
+ * and copy the generated *-baseline-prof.txt from the test output to app/src/main/baseline-prof.txt.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collectBaselineProfile(
+                MoveItJourneys.PACKAGE_NAME,
+                scope -> {
+                    scope.pressHome();
+                    MoveItJourneys.ensureRegistered(scope);
+                    MoveItJourneys.waitForLessons(scope);
+                    MoveItJourneys.scrollLessons(scope);
+                    MoveItJourneys.openFirstLesson(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Measures how long opening a lesson takes, from the click on its card until
+ * LessonDetailsActivity shows it (the "LessonDetailsOpen" trace section of the app)
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonDetailsOpenBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void openLessonDetails() {
+        benchmarkRule.measureRepeated(
+                MoveItJourneys.PACKAGE_NAME,
+                Arrays.asList(new TraceSectionMetric("LessonDetailsOpen"), new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    MoveItJourneys.ensureRegistered(scope);
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    MoveItJourneys.waitForLessons(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    MoveItJourneys.openFirstLesson(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures the frame times while flinging the lessons list (LessonAdapter binding and image loading)
+ * The list is seeded with 2000 lessons of the user's level first (MoveItJourneys.seedLessons),
+ * the built in lessons fill only one screen.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonListScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Before
+    public void seedLessons() {
+        MoveItJourneys.seedLessons();
+    }
+
+    @Test
+    public void scrollLessons() {
+        benchmarkRule.measureRepeated(
+                MoveItJourneys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(),
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    MoveItJourneys.ensureRegistered(scope);
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    MoveItJourneys.waitForLessons(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    MoveItJourneys.scrollLessons(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+
+/**
+ * The user journeys of the app that the benchmarks measure and the Baseline Profile covers
+ * Views are found by their resource ids in the app layouts.
+ */
+final class MoveItJourneys {
+
+    static final String PACKAGE_NAME = "com.example.myproject";
+    private static final long TIMEOUT_MS = 10_000;
+    static final int SEEDED_LESSONS = 2000; // A list long enough that a fling never reaches its end
+
+    private MoveItJourneys() {
+    }
+
+    /**
+     * Makes sure the app has a saved user, so the splash goes to LessonsActivity
+     * A fresh install shows the registration screen once, it is filled in here as a trainee.
+     */
+    static void ensureRegistered(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerview")), TIMEOUT_MS)) {
+            return; // Already registered
+        }
+
+        find(device, "etUserName").setText("Benchmark");
+        find(device, "btnTrainee").click();
+        // The health agreement link is the middle of the sentence
+        find(device, "tvHealthAgg").click();
+        find(device, "checkboxHealthAgreement").click();
+        find(device, "imgBtnCon").click();
+        find(device, "btnContinue").click();
+        waitForLessons(scope);
+    }
+
+    /**
+     * Fills the lessons list through BenchmarkSeedReceiver (benchmark build type of :app)
+     * Waits until the lessons are inserted, sending it again to a seeded app adds nothing.
+     */
+    static void seedLessons() {
+        UiDevice device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        try {
+            // 0x20 = FLAG_INCLUDE_STOPPED_PACKAGES, the app may not have run since it was installed
+            String output = device.executeShellCommand("am broadcast -f 0x20 -n "
+                    + PACKAGE_NAME + "/.BenchmarkSeedReceiver --ei count " + SEEDED_LESSONS);
+            if (!output.contains("Broadcast completed")) {
+                throw new IllegalStateException("Seeding the lessons failed: " + output);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Seeding the lessons failed", e);
+        }
+    }
+
+    // Waits until the splash moved on and the first lesson cards are shown
+    static void waitForLessons(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerview")), TIMEOUT_MS);
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "lessonName")), TIMEOUT_MS);
+    }
+
+    // Flings the lesson list down and back up
+    static void scrollLessons(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = find(device, "recyclerview");
+        // Keeps the gesture away from the system navigation areas
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    // Opens the first lesson card, waits for its details and goes back to the list
+    static void openFirstLesson(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        find(device, "lessonName").click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "tvDescription")), TIMEOUT_MS);
+        device.pressBack();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerview")), TIMEOUT_MS);
+    }
+
+    private static UiObject2 find(UiDevice device, String resourceId) {
+        UiObject2 view = device.wait(Until.findObject(By.res(PACKAGE_NAME, resourceId)), TIMEOUT_MS);
+        if (view == null) {
+            throw new IllegalStateException("View " + resourceId + " not found");
+        }
+        return view;
+    }
+}
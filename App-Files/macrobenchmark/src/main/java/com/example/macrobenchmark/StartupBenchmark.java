@@ -0,0 +1,78 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold, warm and hot start from the launcher through SplashActivity to the lessons list
+ * Every start is measured without AOT compilation and with the Baseline Profile,
+ * so the gain of the profile is seen next to the numbers.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "compilation={0}")
+    public static List<Object[]> compilationModes() {
+        return Arrays.asList(
+                new Object[]{new CompilationMode.None()},
+                new Object[]{new CompilationMode.Partial()});
+    }
+
+    @Test
+    public void coldStart() {
+        measureStart(StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStart() {
+        measureStart(StartupMode.WARM);
+    }
+
+    @Test
+    public void hotStart() {
+        measureStart(StartupMode.HOT);
+    }
+
+    private void measureStart(StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                MoveItJourneys.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    MoveItJourneys.ensureRegistered(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    MoveItJourneys.waitForLessons(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}